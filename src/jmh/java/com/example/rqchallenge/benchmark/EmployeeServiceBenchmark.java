@@ -0,0 +1,253 @@
+package com.example.rqchallenge.benchmark;
+
+import com.example.rqchallenge.config.BulkProperties;
+import com.example.rqchallenge.config.EmployeeCacheProperties;
+import com.example.rqchallenge.config.RateLimitProperties;
+import com.example.rqchallenge.config.ResilienceProperties;
+import com.example.rqchallenge.employees.cache.EmployeeSnapshot;
+import com.example.rqchallenge.employees.model.Employee;
+import com.example.rqchallenge.employees.model.EmployeeListResponse;
+import com.example.rqchallenge.employees.service.EmployeeService;
+import com.example.rqchallenge.employees.upstream.EmployeeResponseReader;
+import com.example.rqchallenge.employees.upstream.UpstreamIsolation;
+import com.example.rqchallenge.employees.upstream.UpstreamRateLimiter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.AbstractClientHttpRequest;
+import org.springframework.http.client.AbstractClientHttpResponse;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EmployeeService hot paths against a synthetic upstream of 1k, 100k and 1M employees. The RestTemplate is backed
+ * by an in-memory request factory, so only our own parsing, indexing and querying is measured.
+ * Run with {@code ./gradlew jmh}, the gc profiler adds the allocation rate per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class EmployeeServiceBenchmark {
+
+    private static final String[] FIRST_NAMES = {"Tiger", "Garrett", "Ashton", "Cedric", "Airi", "Brielle", "Herrod", "Rhona",
+            "Colleen", "Sonya", "Jena", "Quinn", "Charde", "Haley", "Tatyana", "Michael", "Paul", "Gloria", "Bradley", "Dai"};
+    private static final String[] LAST_NAMES = {"Nixon", "Winters", "Cox", "Kelly", "Satou", "Williamson", "Chandler", "Davidson",
+            "Hurst", "Frost", "Gaines", "Flynn", "Marshall", "Kennedy", "Fitzpatrick", "Silva", "Byrd", "Little", "Greer", "Rios"};
+
+    @Param({"1000", "100000", "1000000"})
+    private int employeeCount;
+
+    private byte[] payload;
+    private RestTemplate restTemplate;
+    private EmployeeResponseReader responseReader;
+    private ObjectMapper objectMapper;
+    private List<Employee> employees;
+    private ExecutorService upstreamExecutor;
+    private EmployeeService employeeService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        payload = syntheticPayload(employeeCount);
+        restTemplate = new RestTemplate(new StubRequestFactory(payload));
+        objectMapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        responseReader = new EmployeeResponseReader(objectMapper);
+        employees = responseReader.readEmployeeList(new ByteArrayInputStream(payload)).getData();
+
+        // Long lived snapshot with no background refresh and a budget the benchmark never hits
+        EmployeeCacheProperties cacheProperties = new EmployeeCacheProperties();
+        cacheProperties.setTtl(Duration.ofDays(1));
+        cacheProperties.setRefreshInterval(Duration.ZERO);
+        RateLimitProperties rateLimitProperties = new RateLimitProperties();
+        rateLimitProperties.setInitialRate(1_000_000);
+        rateLimitProperties.setMaxRate(1_000_000);
+        rateLimitProperties.setBurst(1_000_000);
+
+        upstreamExecutor = Executors.newFixedThreadPool(4);
+        employeeService = new EmployeeService(restTemplate, cacheProperties, new UpstreamRateLimiter(rateLimitProperties),
+                new UpstreamIsolation(new ResilienceProperties()), upstreamExecutor, upstreamExecutor, upstreamExecutor, new BulkProperties(), new SimpleMeterRegistry());
+        employeeService.getAllEmployees();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        employeeService.close();
+        upstreamExecutor.shutdownNow();
+    }
+
+    // The previous deserialization path: the whole body as maps, then convertValue per employee
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public int deserializeViaMapConvertValue() throws IOException {
+        Map<String, Object> body = objectMapper.readValue(payload, Map.class);
+        List<Map<String, Object>> data = (List<Map<String, Object>>) body.get("data");
+        int count = 0;
+        for (Map<String, Object> employee : data) {
+            if (objectMapper.convertValue(employee, Employee.class) != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // The current path: the body is streamed straight into Employee objects through RestTemplate.execute
+    @Benchmark
+    public int deserializeStreaming() {
+        EmployeeListResponse response = restTemplate.execute("http://upstream/employees", HttpMethod.GET, null,
+                clientResponse -> responseReader.readEmployeeList(clientResponse.getBody()));
+        return response.getData().size();
+    }
+
+    @Benchmark
+    public EmployeeSnapshot buildSnapshot() {
+        return new EmployeeSnapshot(1, Instant.EPOCH, employees);
+    }
+
+    @Benchmark
+    public List<Employee> nameSearchShortQuery() {
+        return employeeService.getEmployeesByNameSearch("ri");
+    }
+
+    @Benchmark
+    public List<Employee> nameSearchSubstring() {
+        return employeeService.getEmployeesByNameSearch("chand", 100);
+    }
+
+    @Benchmark
+    public List<String> top10HighestEarningEmployeeNames() {
+        return employeeService.getTop10HighestEarningEmployeeNames();
+    }
+
+    @Benchmark
+    public int highestSalary() {
+        return employeeService.getHighestSalaryOfEmployees();
+    }
+
+    private static byte[] syntheticPayload(int count) throws IOException {
+        Random random = new Random(42);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(count * 130);
+        try (JsonGenerator generator = new ObjectMapper().getFactory().createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeStringField("status", "success");
+            generator.writeArrayFieldStart("data");
+            for (int i = 1; i <= count; i++) {
+                generator.writeStartObject();
+                generator.writeStringField("id", Integer.toString(i));
+                generator.writeStringField("employee_name",
+                        FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+                generator.writeStringField("employee_salary", Integer.toString(20_000 + random.nextInt(500_000)));
+                generator.writeStringField("employee_age", Integer.toString(18 + random.nextInt(50)));
+                generator.writeStringField("profile_image", "");
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+        return out.toByteArray();
+    }
+
+    // Answers every request with the same JSON body
+    private static final class StubRequestFactory implements ClientHttpRequestFactory {
+        private final byte[] body;
+
+        private StubRequestFactory(byte[] body) {
+            this.body = body;
+        }
+
+        @Override
+        public ClientHttpRequest createRequest(URI uri, HttpMethod method) {
+            return new AbstractClientHttpRequest() {
+                @Override
+                public String getMethodValue() {
+                    return method.name();
+                }
+
+                @Override
+                public URI getURI() {
+                    return uri;
+                }
+
+                @Override
+                protected OutputStream getBodyInternal(HttpHeaders headers) {
+                    return OutputStream.nullOutputStream();
+                }
+
+                @Override
+                protected ClientHttpResponse executeInternal(HttpHeaders headers) {
+                    return new StubResponse(body);
+                }
+            };
+        }
+    }
+
+    private static final class StubResponse extends AbstractClientHttpResponse {
+        private final byte[] body;
+        private final HttpHeaders headers = new HttpHeaders();
+
+        private StubResponse(byte[] body) {
+            this.body = body;
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            headers.setContentLength(body.length);
+        }
+
+        @Override
+        public int getRawStatusCode() {
+            return 200;
+        }
+
+        @Override
+        public String getStatusText() {
+            return "OK";
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public InputStream getBody() {
+            return new ByteArrayInputStream(body);
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.rqchallenge.benchmark;
+
+import com.example.rqchallenge.config.BulkProperties;
+import com.example.rqchallenge.config.Config;
+import com.example.rqchallenge.config.EmployeeCacheProperties;
+import com.example.rqchallenge.config.RateLimitProperties;
+import com.example.rqchallenge.config.ResilienceProperties;
+import com.example.rqchallenge.config.UpstreamHttpProperties;
+import com.example.rqchallenge.employees.service.EmployeeService;
+import com.example.rqchallenge.employees.upstream.UpstreamIsolation;
+import com.example.rqchallenge.employees.upstream.UpstreamRateLimiter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.OkHttpClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntPredicate;
+
+/**
+ * Compares the two employees.threads.virtual modes on a burst of concurrent callers going through EmployeeService,
+ * over the same OkHttp-backed RestTemplate the application uses, to a local upstream that answers after a fixed latency.
+ * One burst looks up distinct employees, the other reads a cold snapshot, so every caller queues on the snapshot load.
+ * Tomcat itself is not part of it, the platform pool stands in for its default thread count.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ThreadModeBenchmark {
+
+    private static final String BASE_PATH = "/api/v1";
+    private static final int EMPLOYEE_COUNT = 1000;
+
+    @Param({"platform", "virtual"})
+    private String mode;
+
+    @Param({"200", "2000"})
+    private int concurrentCalls;
+
+    @Param({"50"})
+    private int upstreamLatencyMillis;
+
+    @Param({"200"})
+    private int platformPoolSize;
+
+    private HttpServer upstream;
+    private RestTemplate restTemplate;
+    private ExecutorService serviceExecutor;
+    private ExecutorService executor;
+    private EmployeeService employeeService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        byte[] employeeList = employeeList();
+        upstream = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 4096);
+        upstream.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        upstream.createContext(BASE_PATH + "/employees", exchange -> respond(exchange, employeeList));
+        upstream.createContext(BASE_PATH + "/employee/", exchange -> respond(exchange, employee(exchange.getRequestURI().getPath())));
+        upstream.start();
+
+        // Connection limits sized to the burst, so only the threading mode differs between runs
+        UpstreamHttpProperties httpProperties = new UpstreamHttpProperties();
+        httpProperties.setBaseUrl("http://127.0.0.1:" + upstream.getAddress().getPort() + BASE_PATH);
+        httpProperties.setMaxConnectionsPerRoute(concurrentCalls);
+        httpProperties.setMaxIdleConnections(concurrentCalls);
+        Config config = new Config();
+        OkHttpClient httpClient = config.upstreamHttpClient(httpProperties);
+        restTemplate = config.restTemplate(httpClient, httpProperties);
+
+        serviceExecutor = Executors.newCachedThreadPool();
+        executor = "virtual".equals(mode)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(platformPoolSize);
+    }
+
+    // A new service per burst, so the snapshot is cold and no lookup is answered by an earlier one
+    @Setup(Level.Invocation)
+    public void newService() {
+        if (employeeService != null) {
+            employeeService.close();
+        }
+        EmployeeCacheProperties cacheProperties = new EmployeeCacheProperties();
+        cacheProperties.setTtl(Duration.ofDays(1));
+        cacheProperties.setRefreshInterval(Duration.ZERO);
+        RateLimitProperties rateLimitProperties = new RateLimitProperties();
+        rateLimitProperties.setInitialRate(1_000_000);
+        rateLimitProperties.setMaxRate(1_000_000);
+        rateLimitProperties.setBurst(1_000_000);
+        ResilienceProperties resilienceProperties = new ResilienceProperties();
+        resilienceProperties.setMaxConcurrentCalls(concurrentCalls);
+
+        employeeService = new EmployeeService(restTemplate, cacheProperties, new UpstreamRateLimiter(rateLimitProperties),
+                new UpstreamIsolation(resilienceProperties), serviceExecutor, serviceExecutor, serviceExecutor, new BulkProperties(), new SimpleMeterRegistry());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        employeeService.close();
+        executor.shutdownNow();
+        serviceExecutor.shutdownNow();
+        upstream.stop(0);
+    }
+
+    // Time for a burst of single-employee lookups, one upstream call each
+    @Benchmark
+    public int burstOfEmployeeLookups() throws Exception {
+        return burst(call -> employeeService.getEmployeeByID(Integer.toString(call + 1)) != null);
+    }
+
+    // Time for a burst of list reads on a cold snapshot, one caller loads while the rest wait for it
+    @Benchmark
+    public int burstOfColdSnapshotReads() throws Exception {
+        return burst(call -> employeeService.getAllEmployees().size() == EMPLOYEE_COUNT);
+    }
+
+    private int burst(IntPredicate call) throws Exception {
+        List<Future<Boolean>> calls = new ArrayList<>(concurrentCalls);
+        for (int i = 0; i < concurrentCalls; i++) {
+            int index = i;
+            calls.add(executor.submit(() -> call.test(index)));
+        }
+        int succeeded = 0;
+        for (Future<Boolean> result : calls) {
+            if (result.get()) {
+                succeeded++;
+            }
+        }
+        return succeeded;
+    }
+
+    private void respond(HttpExchange exchange, byte[] body) throws IOException {
+        try (exchange) {
+            exchange.getRequestBody().readAllBytes();
+            try {
+                Thread.sleep(upstreamLatencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    private static byte[] employee(String path) {
+        String id = path.substring(path.lastIndexOf('/') + 1);
+        return ("{\"status\":\"success\",\"data\":" + employeeJson(id) + "}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] employeeList() {
+        StringBuilder json = new StringBuilder("{\"status\":\"success\",\"data\":[");
+        for (int i = 1; i <= EMPLOYEE_COUNT; i++) {
+            json.append(i > 1 ? "," : "").append(employeeJson(Integer.toString(i)));
+        }
+        return json.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String employeeJson(String id) {
+        return "{\"id\":\"" + id + "\",\"employee_name\":\"Tiger Nixon\",\"employee_salary\":\"320800\",\"employee_age\":\"61\",\"profile_image\":\"\"}";
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.rqchallenge.loadtest;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keeps every latency sample of one route so percentiles are exact, plus a count per response status.
+ * A load-test run is short enough that storing the raw samples is cheaper than getting a histogram's buckets right.
+ */
+class LatencyRecorder {
+
+    private long[] samples = new long[1024];
+    private int count;
+    private long errors;
+    private final Map<String, Long> outcomes = new TreeMap<>();
+
+    synchronized void record(long latencyNanos, String outcome, boolean error) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = latencyNanos;
+        outcomes.merge(outcome, 1L, Long::sum);
+        if (error) {
+            errors++;
+        }
+    }
+
+    void addAll(LatencyRecorder other) {
+        long[] otherSamples;
+        int otherCount;
+        long otherErrors;
+        Map<String, Long> otherOutcomes;
+        synchronized (other) {
+            otherSamples = other.samples;
+            otherCount = other.count;
+            otherErrors = other.errors;
+            otherOutcomes = new TreeMap<>(other.outcomes);
+        }
+        synchronized (this) {
+            if (count + otherCount > samples.length) {
+                samples = Arrays.copyOf(samples, Math.max(samples.length * 2, count + otherCount));
+            }
+            System.arraycopy(otherSamples, 0, samples, count, otherCount);
+            count += otherCount;
+            errors += otherErrors;
+            otherOutcomes.forEach((outcome, n) -> outcomes.merge(outcome, n, Long::sum));
+        }
+    }
+
+    synchronized Summary summarize() {
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        return new Summary(count, errors, percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999),
+                count == 0 ? 0 : sorted[count - 1], new TreeMap<>(outcomes));
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+    }
+
+    static final class Summary {
+        final long count;
+        final long errors;
+        final long p50;
+        final long p99;
+        final long p999;
+        final long max;
+        final Map<String, Long> outcomes;
+
+        private Summary(long count, long errors, long p50, long p99, long p999, long max, Map<String, Long> outcomes) {
+            this.count = count;
+            this.errors = errors;
+            this.p50 = p50;
+            this.p99 = p99;
+            this.p999 = p999;
+            this.max = max;
+            this.outcomes = outcomes;
+        }
+    }
+}
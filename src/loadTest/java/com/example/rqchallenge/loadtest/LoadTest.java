@@ -0,0 +1,232 @@
+package com.example.rqchallenge.loadtest;
+
+import com.example.rqchallenge.RqChallengeApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Starts the application against a {@link StubUpstream} and drives the IEmployeeController routes open loop at a
+ * fixed request rate, then prints p50/p99/p999 latency, throughput and error counts per route.
+ * Latency is measured from when a request was due rather than when it was sent, so a stalled server shows up in the
+ * tail instead of silently lowering the offered load.
+ * <p>
+ * Configured through system properties, see {@code ./gradlew loadTest}:
+ * <ul>
+ *     <li>{@code loadtest.rate} requests per second, default 200</li>
+ *     <li>{@code loadtest.warmup} and {@code loadtest.duration} in seconds, default 10 and 30</li>
+ *     <li>{@code loadtest.max-in-flight} outstanding requests before new ones count as dropped, default 5000</li>
+ *     <li>{@code loadtest.upstream.employees}, {@code loadtest.upstream.latency-ms}, {@code loadtest.upstream.jitter-ms}
+ *     and {@code loadtest.upstream.rate-limited-ratio} for the stub, default 1000, 50, 20 and 0</li>
+ *     <li>{@code loadtest.weight.<route>} to change the route mix, 0 leaves a route out</li>
+ * </ul>
+ * Any {@code employees.*} or {@code spring.*} system property is picked up by the application as usual, and
+ * program arguments are passed through to it, e.g. {@code --spring.profiles.active=reactive}.
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        int rate = Integer.getInteger("loadtest.rate", 200);
+        Duration warmup = Duration.ofSeconds(Long.getLong("loadtest.warmup", 10));
+        Duration duration = Duration.ofSeconds(Long.getLong("loadtest.duration", 30));
+        int maxInFlight = Integer.getInteger("loadtest.max-in-flight", 5000);
+
+        try (StubUpstream upstream = new StubUpstream(
+                Integer.getInteger("loadtest.upstream.employees", 1000),
+                Long.getLong("loadtest.upstream.latency-ms", 50),
+                Long.getLong("loadtest.upstream.jitter-ms", 20),
+                Double.parseDouble(System.getProperty("loadtest.upstream.rate-limited-ratio", "0"))).start();
+             ConfigurableApplicationContext app = new SpringApplicationBuilder(RqChallengeApplication.class)
+                     .run(withDefaults(args, "--server.port=0", "--employees.upstream.http.base-url=" + upstream.baseUrl()))) {
+
+            int port = ((WebServerApplicationContext) app).getWebServer().getPort();
+            Driver driver = new Driver("http://127.0.0.1:" + port, routes(upstream.getEmployeeCount()), maxInFlight);
+
+            System.out.printf("Stub upstream: %d employees (%d bytes), warming up for %ds%n",
+                    upstream.getEmployeeCount(), upstream.getPayloadBytes(), warmup.toSeconds());
+            driver.run(rate, warmup);
+
+            long upstreamRequests = upstream.getRequests();
+            long upstreamRateLimited = upstream.getRateLimited();
+            System.out.printf("Offering %d req/s for %ds%n", rate, duration.toSeconds());
+            Map<String, LatencyRecorder> results = driver.run(rate, duration);
+
+            report(results, duration);
+            System.out.printf("%nUpstream: %d requests, %d answered with 429%n",
+                    upstream.getRequests() - upstreamRequests, upstream.getRateLimited() - upstreamRateLimited);
+            driver.close();
+        }
+    }
+
+    private static List<Route> routes(int employeeCount) {
+        String[] fragments = {"ni", "cox", "winters", "ashton", "chand", "ri", "zzz"};
+        Supplier<String> randomId = () -> Integer.toString(1 + ThreadLocalRandom.current().nextInt(Math.max(1, employeeCount)));
+        String newEmployee = "{\"name\":\"Load Test\",\"salary\":\"1000\",\"age\":\"30\"}";
+
+        List<Route> routes = new ArrayList<>();
+        routes.add(new Route("all", 2, "GET", () -> "/employees", null));
+        routes.add(new Route("page", 2, "GET", () -> "/employees?limit=100", null));
+        routes.add(new Route("search", 4, "GET", () -> "/employees/search/" + fragments[ThreadLocalRandom.current().nextInt(fragments.length)], null));
+        routes.add(new Route("byId", 2, "GET", () -> "/employee/" + randomId.get(), null));
+        routes.add(new Route("highestSalary", 3, "GET", () -> "/employees/highestSalary", null));
+        routes.add(new Route("topTen", 3, "GET", () -> "/employees/topTenHighestEarningEmployeeNames", null));
+        routes.add(new Route("create", 1, "POST", () -> "/employee", newEmployee));
+        routes.add(new Route("delete", 1, "DELETE", () -> "/employee/" + randomId.get(), null));
+
+        routes.removeIf(route -> route.weight <= 0);
+        if (routes.isEmpty()) {
+            throw new IllegalArgumentException("Every route has a zero weight");
+        }
+        return routes;
+    }
+
+    private static void report(Map<String, LatencyRecorder> results, Duration duration) {
+        System.out.printf("%n%-14s %9s %9s %9s %9s %9s %9s %9s  %s%n",
+                "route", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "responses");
+        LatencyRecorder total = new LatencyRecorder();
+        results.forEach((route, recorder) -> {
+            print(route, recorder.summarize(), duration);
+            total.addAll(recorder);
+        });
+        print("total", total.summarize(), duration);
+    }
+
+    private static void print(String route, LatencyRecorder.Summary summary, Duration duration) {
+        System.out.printf("%-14s %9d %9d %9.1f %9.2f %9.2f %9.2f %9.2f  %s%n", route, summary.count, summary.errors,
+                summary.count / (double) duration.toSeconds(), millis(summary.p50), millis(summary.p99), millis(summary.p999),
+                millis(summary.max), summary.outcomes);
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static String[] withDefaults(String[] args, String... defaults) {
+        List<String> all = new ArrayList<>(List.of(defaults));
+        all.addAll(List.of(args));
+        return all.toArray(new String[0]);
+    }
+
+    private static final class Route {
+        private final String name;
+        private final int weight;
+        private final String method;
+        private final Supplier<String> path;
+        private final String body;
+
+        private Route(String name, int defaultWeight, String method, Supplier<String> path, String body) {
+            this.name = name;
+            this.weight = Integer.getInteger("loadtest.weight." + name, defaultWeight);
+            this.method = method;
+            this.path = path;
+            this.body = body;
+        }
+
+        private HttpRequest request(String baseUrl) {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path.get()))
+                    .timeout(Duration.ofSeconds(30));
+            if (body == null) {
+                return builder.method(method, HttpRequest.BodyPublishers.noBody()).build();
+            }
+            return builder.header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+        }
+    }
+
+    private static final class Driver implements AutoCloseable {
+        private final String baseUrl;
+        private final List<Route> routes;
+        private final int totalWeight;
+        private final int maxInFlight;
+        private final Semaphore inFlight;
+        private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        private final HttpClient client;
+
+        private Driver(String baseUrl, List<Route> routes, int maxInFlight) {
+            this.baseUrl = baseUrl;
+            this.routes = routes;
+            this.totalWeight = routes.stream().mapToInt(route -> route.weight).sum();
+            this.maxInFlight = maxInFlight;
+            this.inFlight = new Semaphore(maxInFlight);
+            this.client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .executor(executor)
+                    .build();
+        }
+
+        private Map<String, LatencyRecorder> run(int rate, Duration duration) throws InterruptedException {
+            Map<String, LatencyRecorder> results = new LinkedHashMap<>();
+            routes.forEach(route -> results.put(route.name, new LatencyRecorder()));
+
+            long interval = TimeUnit.SECONDS.toNanos(1) / Math.max(1, rate);
+            long start = System.nanoTime();
+            long end = start + duration.toNanos();
+            for (long due = start; due < end; due += interval) {
+                long wait = due - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                Route route = pick();
+                send(route, due, results.get(route.name));
+            }
+
+            // Let the requests still in flight finish so the tail is not cut off
+            if (inFlight.tryAcquire(maxInFlight, 60, TimeUnit.SECONDS)) {
+                inFlight.release(maxInFlight);
+            }
+            return results;
+        }
+
+        private void send(Route route, long due, LatencyRecorder recorder) {
+            if (!inFlight.tryAcquire()) {
+                recorder.record(System.nanoTime() - due, "dropped", true);
+                return;
+            }
+            client.sendAsync(route.request(baseUrl), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        long latency = System.nanoTime() - due;
+                        if (error != null) {
+                            recorder.record(latency, error.getClass().getSimpleName(), true);
+                        } else {
+                            recorder.record(latency, Integer.toString(response.statusCode()), response.statusCode() >= 400);
+                        }
+                        inFlight.release();
+                    });
+        }
+
+        private Route pick() {
+            int ticket = ThreadLocalRandom.current().nextInt(totalWeight);
+            for (Route route : routes) {
+                ticket -= route.weight;
+                if (ticket < 0) {
+                    return route;
+                }
+            }
+            return routes.get(routes.size() - 1);
+        }
+
+        @Override
+        public void close() {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.rqchallenge.loadtest;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * In-process stand-in for the dummy.restapiexample.com API with a configurable employee count, response latency
+ * and share of calls answered with a 429. Serves the four endpoints the service uses under /api/v1.
+ */
+public class StubUpstream implements AutoCloseable {
+
+    public static final String BASE_PATH = "/api/v1";
+
+    private static final String[] FIRST_NAMES = {"Tiger", "Garrett", "Ashton", "Cedric", "Airi", "Brielle", "Herrod", "Rhona",
+            "Colleen", "Sonya", "Jena", "Quinn", "Charde", "Haley", "Tatyana", "Michael", "Paul", "Gloria", "Bradley", "Dai"};
+    private static final String[] LAST_NAMES = {"Nixon", "Winters", "Cox", "Kelly", "Satou", "Williamson", "Chandler", "Davidson",
+            "Hurst", "Frost", "Gaines", "Flynn", "Marshall", "Kennedy", "Fitzpatrick", "Silva", "Byrd", "Little", "Greer", "Rios"};
+
+    private final HttpServer server;
+    private final int employeeCount;
+    private final long latencyMillis;
+    private final long latencyJitterMillis;
+    private final double rateLimitedRatio;
+    private final byte[] employeeList;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong rateLimited = new AtomicLong();
+    private final AtomicLong nextId;
+
+    public StubUpstream(int employeeCount, long latencyMillis, long latencyJitterMillis, double rateLimitedRatio) throws IOException {
+        this.employeeCount = employeeCount;
+        this.latencyMillis = latencyMillis;
+        this.latencyJitterMillis = latencyJitterMillis;
+        this.rateLimitedRatio = rateLimitedRatio;
+        this.employeeList = employeeList(employeeCount);
+        this.nextId = new AtomicLong(employeeCount);
+
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext(BASE_PATH + "/employees", exchange -> respond(exchange, () -> employeeList));
+        server.createContext(BASE_PATH + "/employee/", exchange -> respond(exchange, () -> single(idOf(exchange, "/employee/"))));
+        server.createContext(BASE_PATH + "/create", exchange -> respond(exchange, () -> single(Long.toString(nextId.incrementAndGet()))));
+        server.createContext(BASE_PATH + "/delete/", exchange -> respond(exchange,
+                () -> "{\"status\":\"success\",\"message\":\"successfully! deleted Record\"}".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    public StubUpstream start() {
+        server.start();
+        return this;
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + BASE_PATH;
+    }
+
+    public int getEmployeeCount() {
+        return employeeCount;
+    }
+
+    public int getPayloadBytes() {
+        return employeeList.length;
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    public long getRateLimited() {
+        return rateLimited.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void respond(HttpExchange exchange, Supplier<byte[]> body) throws IOException {
+        try (exchange) {
+            requests.incrementAndGet();
+            exchange.getRequestBody().readAllBytes();
+            sleep();
+
+            if (rateLimitedRatio > 0 && ThreadLocalRandom.current().nextDouble() < rateLimitedRatio) {
+                rateLimited.incrementAndGet();
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                exchange.sendResponseHeaders(429, -1);
+                return;
+            }
+
+            byte[] bytes = body.get();
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    private void sleep() {
+        long jitter = latencyJitterMillis > 0 ? ThreadLocalRandom.current().nextLong(-latencyJitterMillis, latencyJitterMillis + 1) : 0;
+        long millis = Math.max(0, latencyMillis + jitter);
+        if (millis > 0) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static String idOf(HttpExchange exchange, String prefix) {
+        String path = exchange.getRequestURI().getPath();
+        return path.substring(path.indexOf(prefix) + prefix.length());
+    }
+
+    private static byte[] single(String id) {
+        return ("{\"status\":\"success\",\"data\":{\"id\":\"" + id + "\",\"employee_name\":\"Tiger Nixon\","
+                + "\"employee_salary\":\"320800\",\"employee_age\":\"61\",\"profile_image\":\"\"}}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] employeeList(int count) throws IOException {
+        Random random = new Random(42);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(count * 130 + 64);
+        try (JsonGenerator generator = new ObjectMapper().getFactory().createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeStringField("status", "success");
+            generator.writeArrayFieldStart("data");
+            for (int i = 1; i <= count; i++) {
+                generator.writeStartObject();
+                generator.writeStringField("id", Integer.toString(i));
+                generator.writeStringField("employee_name",
+                        FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " " + LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+                generator.writeStringField("employee_salary", Integer.toString(20_000 + random.nextInt(500_000)));
+                generator.writeStringField("employee_age", Integer.toString(18 + random.nextInt(50)));
+                generator.writeStringField("profile_image", "");
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+        return out.toByteArray();
+    }
+}
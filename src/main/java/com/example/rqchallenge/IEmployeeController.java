@@ -1,35 +1,66 @@
 package com.example.rqchallenge;
 
+import com.example.rqchallenge.employees.model.BulkItemResult;
 import com.example.rqchallenge.employees.model.Employee;
+import com.example.rqchallenge.employees.model.EmployeeAnalytics;
+import com.example.rqchallenge.employees.model.EmployeePage;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 public interface IEmployeeController {
 
     @GetMapping()
-    ResponseEntity<List<Employee>> getAllEmployees() throws IOException;
+    CompletableFuture<ResponseEntity<List<Employee>>> getAllEmployees(WebRequest request) throws IOException;
+
+    @GetMapping(params = "limit")
+    CompletableFuture<ResponseEntity<EmployeePage>> getEmployeesPage(@RequestParam int limit, @RequestParam(required = false) String after);
+
+    @GetMapping(produces = "application/x-ndjson")
+    CompletableFuture<ResponseEntity<StreamingResponseBody>> streamAllEmployees();
+
+    @GetMapping(params = "limit", produces = "application/x-ndjson")
+    CompletableFuture<ResponseEntity<StreamingResponseBody>> streamEmployeesPage(@RequestParam int limit, @RequestParam(required = false) String after);
 
     @GetMapping("/search/{searchString}")
-    ResponseEntity<List<Employee>> getEmployeesByNameSearch(@PathVariable String searchString);
+    CompletableFuture<ResponseEntity<List<Employee>>> getEmployeesByNameSearch(@PathVariable String searchString, @RequestParam(required = false) Integer limit);
+
+    @GetMapping("/autocomplete")
+    CompletableFuture<ResponseEntity<List<Employee>>> getEmployeesByNamePrefix(@RequestParam String prefix, @RequestParam(defaultValue = "10") int limit);
 
     @GetMapping("/{id}")
-    ResponseEntity<Employee> getEmployeeById(@PathVariable String id);
+    CompletableFuture<ResponseEntity<Employee>> getEmployeeById(@PathVariable String id);
 
     @GetMapping("/highestSalary")
-    ResponseEntity<Integer> getHighestSalaryOfEmployees();
+    CompletableFuture<ResponseEntity<Integer>> getHighestSalaryOfEmployees(WebRequest request);
 
     @GetMapping("/topTenHighestEarningEmployeeNames")
-    ResponseEntity<List<String>> getTopTenHighestEarningEmployeeNames();
+    CompletableFuture<ResponseEntity<List<String>>> getTopTenHighestEarningEmployeeNames(@RequestParam(defaultValue = "10") int topN, WebRequest request);
+
+    @GetMapping("/analytics")
+    CompletableFuture<ResponseEntity<EmployeeAnalytics>> getEmployeeAnalytics(@RequestParam(required = false) List<Integer> salaryBuckets,
+                                                                               @RequestParam(required = false) List<Integer> ageBands, WebRequest request);
 
     @PostMapping()
-    ResponseEntity<Employee> createEmployee(@RequestBody Map<String, Object> employeeInput);
+    CompletableFuture<ResponseEntity<Employee>> createEmployee(@RequestBody Map<String, Object> employeeInput);
 
     @DeleteMapping("/{id}")
-    ResponseEntity<String> deleteEmployeeById(@PathVariable String id);
+    CompletableFuture<ResponseEntity<String>> deleteEmployeeById(@PathVariable String id);
+
+    @PostMapping("/bulk")
+    CompletableFuture<ResponseEntity<List<BulkItemResult>>> createEmployees(@RequestBody List<Map<String, Object>> employeeInputs);
+
+    @PostMapping("/lookup")
+    CompletableFuture<ResponseEntity<List<BulkItemResult>>> getEmployeesByIds(@RequestBody List<String> ids);
+
+    @PostMapping("/bulk-delete")
+    CompletableFuture<ResponseEntity<List<BulkItemResult>>> deleteEmployeesById(@RequestBody List<String> ids);
 
 }
@@ -0,0 +1,28 @@
+package com.example.rqchallenge.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "employees.bulk")
+public class BulkProperties {
+
+    // Upstream calls a single bulk request may have in flight at once
+    private int parallelism = 8;
+
+    private int maxBatchSize = 1000;
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public void setMaxBatchSize(int maxBatchSize) {
+        this.maxBatchSize = maxBatchSize;
+    }
+}
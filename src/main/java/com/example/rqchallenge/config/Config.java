@@ -1,14 +1,108 @@
 package com.example.rqchallenge.config;
 
+import com.example.rqchallenge.employees.controller.CachedJsonListHttpMessageConverter;
+import com.example.rqchallenge.employees.upstream.UpstreamIsolation;
+import com.example.rqchallenge.employees.upstream.UpstreamRateLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.netty.channel.ChannelOption;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import io.netty.handler.timeout.WriteTimeoutHandler;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.client.OkHttp3ClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.util.DefaultUriBuilderFactory;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
 
 @Configuration
+@EnableConfigurationProperties({EmployeeCacheProperties.class, UpstreamHttpProperties.class, RateLimitProperties.class, ThreadingProperties.class, BulkProperties.class,
+        ResilienceProperties.class})
 public class Config {
 
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public OkHttpClient upstreamHttpClient(UpstreamHttpProperties properties) {
+        OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(properties.getMaxIdleConnections(), properties.getKeepAlive().toMillis(), TimeUnit.MILLISECONDS))
+                .connectTimeout(properties.getConnectTimeout())
+                .readTimeout(properties.getReadTimeout())
+                .writeTimeout(properties.getWriteTimeout())
+                .callTimeout(properties.getCallTimeout())
+                .addInterceptor(new RouteConnectionLimiter(properties.getMaxConnectionsPerRoute(), properties.getCallTimeout().toMillis()));
+
+        // OkHttp negotiates HTTP/2 over TLS by default, so turning it off means pinning HTTP/1.1
+        if (!properties.isHttp2()) {
+            builder.protocols(Collections.singletonList(Protocol.HTTP_1_1));
+        }
+
+        // OkHttp asks for gzip and decompresses transparently unless the request already names an encoding
+        if (!properties.isCompression()) {
+            builder.addInterceptor(chain -> chain.proceed(chain.request().newBuilder()
+                    .header("Accept-Encoding", "identity")
+                    .build()));
+        }
+
+        return builder.build();
+    }
+
+    // Relative URLs handed to the RestTemplate resolve against the configured upstream base URL
+    @Bean
+    public RestTemplate restTemplate(OkHttpClient upstreamHttpClient, UpstreamHttpProperties properties) {
+        RestTemplate restTemplate = new RestTemplate(new OkHttp3ClientHttpRequestFactory(upstreamHttpClient));
+        restTemplate.setUriTemplateHandler(new DefaultUriBuilderFactory(properties.getBaseUrl()));
+        return restTemplate;
+    }
+
+    // Reactive profile counterpart of the OkHttp client above, driven by the same employees.upstream.http settings
+    @Bean
+    @Profile("reactive")
+    public WebClient employeeWebClient(WebClient.Builder builder, UpstreamHttpProperties properties) {
+        ConnectionProvider connectionProvider = ConnectionProvider.builder("upstream")
+                .maxConnections(properties.getMaxConnectionsPerRoute())
+                .maxIdleTime(properties.getKeepAlive())
+                .pendingAcquireTimeout(properties.getCallTimeout())
+                .build();
+
+        HttpClient httpClient = HttpClient.create(connectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                .responseTimeout(properties.getCallTimeout())
+                .compress(properties.isCompression())
+                .protocol(properties.isHttp2() ? new HttpProtocol[]{HttpProtocol.H2, HttpProtocol.HTTP11} : new HttpProtocol[]{HttpProtocol.HTTP11})
+                .doOnConnected(connection -> connection
+                        .addHandlerLast(new ReadTimeoutHandler(properties.getReadTimeout().toMillis(), TimeUnit.MILLISECONDS))
+                        .addHandlerLast(new WriteTimeoutHandler(properties.getWriteTimeout().toMillis(), TimeUnit.MILLISECONDS)));
+
+        return builder
+                .baseUrl(properties.getBaseUrl())
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+
+    // Picked up by Spring Boot and placed ahead of the Jackson converter
+    @Bean
+    @Profile("!reactive")
+    public CachedJsonListHttpMessageConverter cachedJsonListHttpMessageConverter(ObjectMapper objectMapper) {
+        return new CachedJsonListHttpMessageConverter(objectMapper);
+    }
+
+    @Bean
+    public UpstreamRateLimiter upstreamRateLimiter(RateLimitProperties properties) {
+        return new UpstreamRateLimiter(properties);
+    }
+
+    @Bean
+    public UpstreamIsolation upstreamIsolation(ResilienceProperties properties) {
+        return new UpstreamIsolation(properties);
     }
 }
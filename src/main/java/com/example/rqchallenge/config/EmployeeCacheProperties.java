@@ -0,0 +1,110 @@
+package com.example.rqchallenge.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "employees.cache")
+public class EmployeeCacheProperties {
+
+    // How long a snapshot is served without asking the upstream again
+    private Duration ttl = Duration.ofSeconds(30);
+
+    // How long past the ttl a snapshot may still be served while a refresh runs in the background
+    private Duration maxStale = Duration.ofMinutes(5);
+
+    // Background refresh interval while the snapshot is being read, kept inside the ttl; zero or negative disables refreshing
+    private Duration refreshInterval = Duration.ofSeconds(30);
+
+    // Background refresh interval while nobody reads the snapshot, kept inside ttl + max-stale
+    private Duration idleRefreshInterval = Duration.ofMinutes(2);
+
+    // Fraction each refresh interval is randomly stretched or shrunk by, so instances do not refresh in step
+    private double refreshJitter = 0.2;
+
+    // Largest share of the learned upstream rate that background refreshes may use
+    private double refreshBudgetShare = 0.1;
+
+    // How long a local create or delete is replayed onto refreshed snapshots that do not show it yet
+    private Duration journalRetention = Duration.ofMinutes(5);
+
+    // Where the latest snapshot is kept between restarts. Off unless set, the file holds names and salaries, so give each
+    // instance a private path rather than somewhere shared like the temp directory
+    private Path snapshotFile;
+
+    // A snapshot file older than this is ignored on startup
+    private Duration snapshotFileMaxAge = Duration.ofHours(24);
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public Duration getMaxStale() {
+        return maxStale;
+    }
+
+    public void setMaxStale(Duration maxStale) {
+        this.maxStale = maxStale;
+    }
+
+    public Duration getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    public void setRefreshInterval(Duration refreshInterval) {
+        this.refreshInterval = refreshInterval;
+    }
+
+    public Duration getIdleRefreshInterval() {
+        return idleRefreshInterval;
+    }
+
+    public void setIdleRefreshInterval(Duration idleRefreshInterval) {
+        this.idleRefreshInterval = idleRefreshInterval;
+    }
+
+    public double getRefreshJitter() {
+        return refreshJitter;
+    }
+
+    public void setRefreshJitter(double refreshJitter) {
+        this.refreshJitter = refreshJitter;
+    }
+
+    public double getRefreshBudgetShare() {
+        return refreshBudgetShare;
+    }
+
+    public void setRefreshBudgetShare(double refreshBudgetShare) {
+        this.refreshBudgetShare = refreshBudgetShare;
+    }
+
+    public Duration getJournalRetention() {
+        return journalRetention;
+    }
+
+    public void setJournalRetention(Duration journalRetention) {
+        this.journalRetention = journalRetention;
+    }
+
+    public Path getSnapshotFile() {
+        return snapshotFile;
+    }
+
+    public void setSnapshotFile(Path snapshotFile) {
+        this.snapshotFile = snapshotFile;
+    }
+
+    public Duration getSnapshotFileMaxAge() {
+        return snapshotFileMaxAge;
+    }
+
+    public void setSnapshotFileMaxAge(Duration snapshotFileMaxAge) {
+        this.snapshotFileMaxAge = snapshotFileMaxAge;
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.rqchallenge.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "employees.upstream.rate-limit")
+public class RateLimitProperties {
+
+    // Requests per second we start out allowing ourselves, adjusted as 429s come back
+    private double initialRate = 5;
+
+    private double minRate = 0.2;
+
+    private double maxRate = 50;
+
+    // Requests per second added back after every call the upstream accepts
+    private double additiveIncrease = 0.1;
+
+    private int burst = 10;
+
+    // How long to back off after a 429 that carries no usable Retry-After header
+    private Duration defaultRetryAfter = Duration.ofSeconds(5);
+
+    // How long a client-facing call may wait for budget, including retries after a 429
+    private Duration interactiveMaxWait = Duration.ofSeconds(3);
+
+    private Duration bulkMaxWait = Duration.ofSeconds(60);
+
+    private Duration backgroundMaxWait = Duration.ofSeconds(30);
+
+    public double getInitialRate() {
+        return initialRate;
+    }
+
+    public void setInitialRate(double initialRate) {
+        this.initialRate = initialRate;
+    }
+
+    public double getMinRate() {
+        return minRate;
+    }
+
+    public void setMinRate(double minRate) {
+        this.minRate = minRate;
+    }
+
+    public double getMaxRate() {
+        return maxRate;
+    }
+
+    public void setMaxRate(double maxRate) {
+        this.maxRate = maxRate;
+    }
+
+    public double getAdditiveIncrease() {
+        return additiveIncrease;
+    }
+
+    public void setAdditiveIncrease(double additiveIncrease) {
+        this.additiveIncrease = additiveIncrease;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+
+    public void setBurst(int burst) {
+        this.burst = burst;
+    }
+
+    public Duration getDefaultRetryAfter() {
+        return defaultRetryAfter;
+    }
+
+    public void setDefaultRetryAfter(Duration defaultRetryAfter) {
+        this.defaultRetryAfter = defaultRetryAfter;
+    }
+
+    public Duration getInteractiveMaxWait() {
+        return interactiveMaxWait;
+    }
+
+    public void setInteractiveMaxWait(Duration interactiveMaxWait) {
+        this.interactiveMaxWait = interactiveMaxWait;
+    }
+
+    public Duration getBulkMaxWait() {
+        return bulkMaxWait;
+    }
+
+    public void setBulkMaxWait(Duration bulkMaxWait) {
+        this.bulkMaxWait = bulkMaxWait;
+    }
+
+    public Duration getBackgroundMaxWait() {
+        return backgroundMaxWait;
+    }
+
+    public void setBackgroundMaxWait(Duration backgroundMaxWait) {
+        this.backgroundMaxWait = backgroundMaxWait;
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.rqchallenge.config;
+
+import com.example.rqchallenge.employees.upstream.UpstreamEndpoint;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "employees.upstream.resilience")
+public class ResilienceProperties {
+
+    // Share of failed calls in the window that opens an endpoint's breaker
+    private double failureRateThreshold = 0.5;
+
+    // Calls slower than this count as slow, and enough slow calls open the breaker as well
+    private Duration slowCallThreshold = Duration.ofSeconds(3);
+
+    private double slowCallRateThreshold = 0.8;
+
+    // Number of most recent calls the rates are worked out over
+    private int slidingWindowSize = 20;
+
+    // Calls needed in the window before the breaker may open at all
+    private int minimumCalls = 10;
+
+    private Duration openDuration = Duration.ofSeconds(15);
+
+    // Trial calls let through once the open duration has passed, all must succeed for the breaker to close
+    private int halfOpenCalls = 3;
+
+    // Bulkhead size for endpoints without an entry below
+    private int maxConcurrentCalls = 16;
+
+    private Map<UpstreamEndpoint, Integer> maxConcurrentCallsPerEndpoint = new EnumMap<>(UpstreamEndpoint.class);
+
+    public double getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    public void setFailureRateThreshold(double failureRateThreshold) {
+        this.failureRateThreshold = failureRateThreshold;
+    }
+
+    public Duration getSlowCallThreshold() {
+        return slowCallThreshold;
+    }
+
+    public void setSlowCallThreshold(Duration slowCallThreshold) {
+        this.slowCallThreshold = slowCallThreshold;
+    }
+
+    public double getSlowCallRateThreshold() {
+        return slowCallRateThreshold;
+    }
+
+    public void setSlowCallRateThreshold(double slowCallRateThreshold) {
+        this.slowCallRateThreshold = slowCallRateThreshold;
+    }
+
+    public int getSlidingWindowSize() {
+        return slidingWindowSize;
+    }
+
+    public void setSlidingWindowSize(int slidingWindowSize) {
+        this.slidingWindowSize = slidingWindowSize;
+    }
+
+    public int getMinimumCalls() {
+        return minimumCalls;
+    }
+
+    public void setMinimumCalls(int minimumCalls) {
+        this.minimumCalls = minimumCalls;
+    }
+
+    public Duration getOpenDuration() {
+        return openDuration;
+    }
+
+    public void setOpenDuration(Duration openDuration) {
+        this.openDuration = openDuration;
+    }
+
+    public int getHalfOpenCalls() {
+        return halfOpenCalls;
+    }
+
+    public void setHalfOpenCalls(int halfOpenCalls) {
+        this.halfOpenCalls = halfOpenCalls;
+    }
+
+    public int getMaxConcurrentCalls() {
+        return maxConcurrentCalls;
+    }
+
+    public void setMaxConcurrentCalls(int maxConcurrentCalls) {
+        this.maxConcurrentCalls = maxConcurrentCalls;
+    }
+
+    public Map<UpstreamEndpoint, Integer> getMaxConcurrentCallsPerEndpoint() {
+        return maxConcurrentCallsPerEndpoint;
+    }
+
+    public void setMaxConcurrentCallsPerEndpoint(Map<UpstreamEndpoint, Integer> maxConcurrentCallsPerEndpoint) {
+        this.maxConcurrentCallsPerEndpoint = maxConcurrentCallsPerEndpoint;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.rqchallenge.config;
+
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * OkHttp only caps connections per host for asynchronous calls, RestTemplate calls are synchronous,
+ * so this interceptor bounds how many calls may be in flight to the same scheme, host and port.
+ * A call holds its permit until its response body is closed, since the connection stays busy until then.
+ */
+class RouteConnectionLimiter implements Interceptor {
+
+    private final int maxPerRoute;
+    private final long maxWaitMillis;
+    private final Map<String, Semaphore> permits = new ConcurrentHashMap<>();
+
+    // A wait of zero or less waits as long as it takes, the same way OkHttp reads a zero call timeout
+    RouteConnectionLimiter(int maxPerRoute, long maxWaitMillis) {
+        this.maxPerRoute = maxPerRoute;
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        HttpUrl url = chain.request().url();
+        String route = url.scheme() + "://" + url.host() + ":" + url.port();
+        Semaphore semaphore = permits.computeIfAbsent(route, key -> new Semaphore(maxPerRoute, true));
+
+        try {
+            if (maxWaitMillis <= 0) {
+                semaphore.acquire();
+            } else if (!semaphore.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+                throw new InterruptedIOException("Timed out waiting for a connection to " + route);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted waiting for a connection to " + route);
+        }
+
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) {
+                semaphore.release();
+            }
+        };
+        Response response;
+        try {
+            response = chain.proceed(chain.request());
+        } catch (IOException | RuntimeException | Error e) {
+            release.run();
+            throw e;
+        }
+        if (response.body() == null) {
+            release.run();
+            return response;
+        }
+        return response.newBuilder()
+                .body(new PermitReleasingBody(response.body(), release))
+                .build();
+    }
+
+    // Gives the permit back once the body is closed, whether through the body or through its source or stream
+    private static final class PermitReleasingBody extends ResponseBody {
+        private final ResponseBody delegate;
+        private final BufferedSource source;
+
+        private PermitReleasingBody(ResponseBody delegate, Runnable release) {
+            this.delegate = delegate;
+            this.source = Okio.buffer(new ForwardingSource(delegate.source()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        release.run();
+                    }
+                }
+            });
+        }
+
+        @Override
+        public MediaType contentType() {
+            return delegate.contentType();
+        }
+
+        @Override
+        public long contentLength() {
+            return delegate.contentLength();
+        }
+
+        @Override
+        public BufferedSource source() {
+            return source;
+        }
+    }
+}
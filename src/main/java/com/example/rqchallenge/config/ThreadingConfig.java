@@ -0,0 +1,74 @@
+package com.example.rqchallenge.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class ThreadingConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThreadingConfig.class);
+
+    // Every request gets its own virtual thread, so a blocking RestTemplate exchange no longer holds a platform thread
+    @Bean
+    @ConditionalOnProperty(name = "employees.threads.virtual", havingValue = "true")
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        logger.info("Handling Tomcat requests on virtual threads");
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    // Shared executor for upstream work that runs off the request thread
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService upstreamExecutor(ThreadingProperties properties) {
+        if (properties.isVirtual()) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("upstream-", 0).factory());
+        }
+        return Executors.newFixedThreadPool(properties.getUpstreamPoolSize(), platformThreads("upstream-"));
+    }
+
+    // Runs the items of bulk requests, which can each wait up to the bulk budget for upstream capacity.
+    // Kept apart from the upstream executor so a large batch never holds up snapshot refreshes and persists,
+    // and bounded like the request executor so items beyond its queue are turned away rather than left to pile up.
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService bulkExecutor(ThreadingProperties properties) {
+        if (properties.isVirtual()) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("bulk-", 0).factory());
+        }
+        int size = properties.getBulkPoolSize();
+        return new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getBulkQueueCapacity()), platformThreads("bulk-"));
+    }
+
+    // Runs the work async endpoints hand off, so Tomcat threads go back to the pool while the upstream is read.
+    // Kept apart from the bulk executor because these tasks wait on bulk fan-outs that run there.
+    // The queue is bounded so a backlog the upstream cannot work off is turned away rather than left to pile up.
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService requestExecutor(ThreadingProperties properties) {
+        if (properties.isVirtual()) {
+            return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("request-", 0).factory());
+        }
+        int size = properties.getRequestPoolSize();
+        return new ThreadPoolExecutor(size, size, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(properties.getRequestQueueCapacity()), platformThreads("request-"));
+    }
+
+    private static ThreadFactory platformThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
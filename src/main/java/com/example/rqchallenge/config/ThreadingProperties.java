@@ -0,0 +1,97 @@
+package com.example.rqchallenge.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "employees.threads")
+public class ThreadingProperties {
+
+    // Run Tomcat request handling and upstream work on virtual threads instead of platform thread pools
+    private boolean virtual = false;
+
+    // Size of the platform thread pool used for upstream work when virtual threads are off
+    private int upstreamPoolSize = 32;
+
+    // Size of the platform thread pool async endpoints hand their work to when virtual threads are off
+    private int requestPoolSize = 64;
+
+    // Requests that may wait for a request thread before new ones are turned away with a 503
+    private int requestQueueCapacity = 1000;
+
+    // Size of the platform thread pool bulk request items run on when virtual threads are off
+    private int bulkPoolSize = 32;
+
+    // Bulk items that may wait for a bulk thread before further ones are reported as failed
+    private int bulkQueueCapacity = 1000;
+
+    // How long a single-employee or list request may take before it is answered with a 504
+    private Duration requestTimeout = Duration.ofSeconds(10);
+
+    // Same for bulk requests, which queue for upstream budget item by item
+    private Duration bulkRequestTimeout = Duration.ofMinutes(2);
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    public void setVirtual(boolean virtual) {
+        this.virtual = virtual;
+    }
+
+    public int getUpstreamPoolSize() {
+        return upstreamPoolSize;
+    }
+
+    public void setUpstreamPoolSize(int upstreamPoolSize) {
+        this.upstreamPoolSize = upstreamPoolSize;
+    }
+
+    public int getRequestPoolSize() {
+        return requestPoolSize;
+    }
+
+    public void setRequestPoolSize(int requestPoolSize) {
+        this.requestPoolSize = requestPoolSize;
+    }
+
+    public int getRequestQueueCapacity() {
+        return requestQueueCapacity;
+    }
+
+    public void setRequestQueueCapacity(int requestQueueCapacity) {
+        this.requestQueueCapacity = requestQueueCapacity;
+    }
+
+    public int getBulkPoolSize() {
+        return bulkPoolSize;
+    }
+
+    public void setBulkPoolSize(int bulkPoolSize) {
+        this.bulkPoolSize = bulkPoolSize;
+    }
+
+    public int getBulkQueueCapacity() {
+        return bulkQueueCapacity;
+    }
+
+    public void setBulkQueueCapacity(int bulkQueueCapacity) {
+        this.bulkQueueCapacity = bulkQueueCapacity;
+    }
+
+    public Duration getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    public void setRequestTimeout(Duration requestTimeout) {
+        this.requestTimeout = requestTimeout;
+    }
+
+    public Duration getBulkRequestTimeout() {
+        return bulkRequestTimeout;
+    }
+
+    public void setBulkRequestTimeout(Duration bulkRequestTimeout) {
+        this.bulkRequestTimeout = bulkRequestTimeout;
+    }
+}
@@ -0,0 +1,352 @@
+package com.example.rqchallenge.employees.cache;
+
+import com.example.rqchallenge.employees.index.EmployeeStats;
+import com.example.rqchallenge.employees.index.EmployeeTable;
+import com.example.rqchallenge.employees.index.IdOrder;
+import com.example.rqchallenge.employees.index.NameIndex;
+import com.example.rqchallenge.employees.index.PrefixIndex;
+import com.example.rqchallenge.employees.index.SalaryIndex;
+import com.example.rqchallenge.employees.model.CachedJsonList;
+import com.example.rqchallenge.employees.model.CountBand;
+import com.example.rqchallenge.employees.model.Employee;
+import com.example.rqchallenge.employees.model.EmployeeAnalytics;
+import com.example.rqchallenge.employees.model.EmployeePage;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.IntBinaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * One loaded copy of the employee list held as an {@link EmployeeTable} plus the indexes over its rows.
+ * Employee objects are only materialized for the rows a query returns.
+ */
+public final class EmployeeSnapshot {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long ADDED = 1;
+    private static final long REMOVED = 2;
+    // Top-N lists up to this size are kept per N, larger ones are built per call
+    private static final int MAX_CACHED_TOP = 100;
+
+    private final long version;
+    private final Instant loadedAt;
+    private final EmployeeTable table;
+    private final SalaryIndex salaryIndex;
+    private final NameIndex nameIndex;
+    private final PrefixIndex prefixIndex;
+    private final EmployeeStats stats;
+    private int[] idOrderedRows;
+    private String[] orderedIds;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long fingerprint;
+    private long revision;
+    // Lists handed out to every reader of the current content, dropped on any create or delete
+    private final ConcurrentMap<Object, CachedJsonList<?>> results = new ConcurrentHashMap<>();
+
+    public EmployeeSnapshot(long version, Instant loadedAt, List<Employee> employees) {
+        this.version = version;
+        this.loadedAt = loadedAt;
+        this.table = EmployeeTable.of(employees);
+        this.salaryIndex = SalaryIndex.build(table);
+        this.nameIndex = NameIndex.build(table);
+        this.prefixIndex = PrefixIndex.build(table);
+        this.stats = EmployeeStats.build(table);
+        this.idOrderedRows = idOrder(table);
+        this.orderedIds = new String[idOrderedRows.length];
+        for (int i = 0; i < idOrderedRows.length; i++) {
+            orderedIds[i] = table.id(idOrderedRows[i]);
+        }
+        long hash = FNV_OFFSET;
+        for (int row = 0; row < table.rowCount(); row++) {
+            if (table.isLive(row)) {
+                hash = (hash ^ rowHash(table, row)) * FNV_PRIME;
+            }
+        }
+        this.fingerprint = hash;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Instant getLoadedAt() {
+        return loadedAt;
+    }
+
+    // Number of creates and deletes applied since the load, together with the version it identifies the current content
+    public long getRevision() {
+        return read(() -> revision);
+    }
+
+    // Validator for everything read from this snapshot, sent as a weak ETag. It is a hash of the employees and of every
+    // create or delete applied since, so it only changes when the content does and agrees across refreshes and instances.
+    public String getETag() {
+        return read(() -> Long.toHexString(fingerprint));
+    }
+
+    // Shared and read-only, built once per content rather than per call
+    public List<Employee> getEmployees() {
+        return cached("employees", table::liveEmployees);
+    }
+
+    public Optional<Employee> find(String id) {
+        return read(() -> {
+            int row = table.rowOf(id);
+            return row < 0 ? Optional.<Employee>empty() : Optional.of(table.employee(row));
+        });
+    }
+
+    public int size() {
+        return read(table::size);
+    }
+
+    public int highestSalary() {
+        return read(salaryIndex::highestSalary);
+    }
+
+    public List<String> topEarnerNames(int n) {
+        if (n > MAX_CACHED_TOP) {
+            return read(() -> topEarnerNamesUncached(n));
+        }
+        return cached(n, () -> topEarnerNamesUncached(n));
+    }
+
+    private List<String> topEarnerNamesUncached(int n) {
+        int[] rows = salaryIndex.topRows(n);
+        List<String> names = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            names.add(table.name(row));
+        }
+        return names;
+    }
+
+    public List<Employee> search(String query, int limit) {
+        return read(() -> {
+            int[] rows = nameIndex.search(query, limit);
+            return table.employees(rows, rows.length);
+        });
+    }
+
+    // Type-ahead: employees with a name word starting with the prefix, whole-name matches first
+    public List<Employee> autocomplete(String prefix, int limit) {
+        return read(() -> {
+            int[] rows = prefixIndex.complete(prefix, limit);
+            return table.employees(rows, rows.length);
+        });
+    }
+
+    // Every figure is read off the running aggregates or the salary order, so this costs the same for any number of
+    // employees. Each edge list must be ascending and splits its range into edges + 1 bands.
+    public EmployeeAnalytics analytics(int[] salaryEdges, int[] ageEdges) {
+        return read(() -> {
+            EmployeeAnalytics analytics = new EmployeeAnalytics();
+            analytics.setEmployeeCount(table.size());
+            analytics.setSalaryCount(salaryIndex.size());
+            analytics.setAverageSalary(stats.averageSalary());
+            if (salaryIndex.size() > 0) {
+                analytics.setLowestSalary(salaryIndex.lowestSalary());
+                analytics.setMedianSalary(salaryIndex.salaryAtQuantile(0.5));
+                analytics.setP90Salary(salaryIndex.salaryAtQuantile(0.9));
+                analytics.setP99Salary(salaryIndex.salaryAtQuantile(0.99));
+                analytics.setHighestSalary(salaryIndex.highestSalary());
+            }
+            analytics.setSalaryHistogram(bands(salaryEdges, (from, to) ->
+                    salaryIndex.countAtLeast(from) - (to == Integer.MAX_VALUE ? 0 : salaryIndex.countAtLeast(to))));
+            analytics.setAgeCount(stats.ageCount());
+            analytics.setAverageAge(stats.averageAge());
+            analytics.setAgeBands(bands(ageEdges, stats::countAges));
+            return analytics;
+        });
+    }
+
+    // Employees in id order starting just after the given id, so a cursor stays valid across snapshots
+    public EmployeePage page(int limit, String after) {
+        return read(() -> {
+            int position = after == null ? 0 : firstIdAfter(after);
+            List<Employee> data = new ArrayList<>(Math.min(limit, idOrderedRows.length));
+            String last = null;
+            for (; position < idOrderedRows.length && data.size() < limit; position++) {
+                int row = idOrderedRows[position];
+                if (table.isLive(row)) {
+                    data.add(table.employee(row));
+                    last = orderedIds[position];
+                }
+            }
+            boolean more = false;
+            for (int i = position; i < idOrderedRows.length && !more; i++) {
+                more = table.isLive(idOrderedRows[i]);
+            }
+            return new EmployeePage(data, more ? last : null);
+        });
+    }
+
+    //Applies a successful create to every structure reads go through until the next refresh replaces this snapshot
+    public void addEmployee(Employee employee) {
+        write(() -> {
+            int replaced = employee.getId() == null ? -1 : table.rowOf(employee.getId());
+            if (replaced >= 0) {
+                salaryIndex.remove(replaced);
+                stats.remove(replaced);
+            }
+            int row = table.append(employee);
+            salaryIndex.add(row);
+            stats.add(row);
+            nameIndex.add(row);
+            prefixIndex.add(row);
+            addToIdOrder(row);
+            fingerprint = (fingerprint ^ (rowHash(table, row) + ADDED)) * FNV_PRIME;
+            revision++;
+            results.clear();
+        });
+    }
+
+    public boolean removeEmployee(String id) {
+        lock.writeLock().lock();
+        try {
+            int row = table.rowOf(id);
+            if (row < 0) {
+                return false;
+            }
+            salaryIndex.remove(row);
+            stats.remove(row);
+            table.delete(id);
+            fingerprint = (fingerprint ^ (rowHash(table, row) + REMOVED)) * FNV_PRIME;
+            revision++;
+            results.clear();
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Read access to the raw columns, e.g. to write them out without materializing every employee
+    <T> T readTable(Function<EmployeeTable, T> reader) {
+        return read(() -> reader.apply(table));
+    }
+
+    public Duration age(Clock clock) {
+        return Duration.between(loadedAt, clock.instant());
+    }
+
+    // Built under the read lock, so a list can never outlive the content it was built from
+    @SuppressWarnings("unchecked")
+    private <E> List<E> cached(Object key, Supplier<List<E>> build) {
+        return read(() -> (List<E>) results.computeIfAbsent(key, ignored -> new CachedJsonList<>(build.get())));
+    }
+
+    private <T> T read(Supplier<T> query) {
+        lock.readLock().lock();
+        try {
+            return query.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void write(Runnable mutation) {
+        lock.writeLock().lock();
+        try {
+            mutation.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static List<CountBand> bands(int[] edges, IntBinaryOperator countBetween) {
+        List<CountBand> bands = new ArrayList<>(edges.length + 1);
+        for (int i = 0; i <= edges.length; i++) {
+            int from = i == 0 ? Integer.MIN_VALUE : edges[i - 1];
+            int to = i == edges.length ? Integer.MAX_VALUE : edges[i];
+            bands.add(new CountBand(i == 0 ? null : from, i == edges.length ? null : to, countBetween.applyAsInt(from, to)));
+        }
+        return bands;
+    }
+
+    private static long rowHash(EmployeeTable table, int row) {
+        long hash = FNV_OFFSET;
+        hash = hash(hash, table.id(row));
+        hash = hash(hash, table.name(row));
+        hash = hash(hash, table.profileImage(row));
+        hash = hash(hash, table.salaryText(row));
+        return hash(hash, table.ageText(row));
+    }
+
+    private static long hash(long hash, String value) {
+        if (value == null) {
+            return (hash ^ 0xFFFF_FFFFL) * FNV_PRIME;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+        }
+        //Terminator so ("ab", "c") and ("a", "bc") differ
+        return (hash ^ 0x1_0000L) * FNV_PRIME;
+    }
+
+    private static int[] idOrder(EmployeeTable table) {
+        Integer[] rows = new Integer[table.rowCount()];
+        int count = 0;
+        for (int row = 0; row < table.rowCount(); row++) {
+            if (table.isLive(row) && table.id(row) != null) {
+                rows[count++] = row;
+            }
+        }
+        Arrays.sort(rows, 0, count, (left, right) -> IdOrder.compare(table.id(left), table.id(right)));
+
+        int[] ordered = new int[count];
+        for (int i = 0; i < count; i++) {
+            ordered[i] = rows[i];
+        }
+        return ordered;
+    }
+
+    // A replaced id keeps its position and just points at the new row. A new id is copied into place, which is linear
+    // but only paid per create, and creates are far rarer than page reads. Deleted ids stay and are skipped by page().
+    private void addToIdOrder(int row) {
+        String id = table.id(row);
+        if (id == null) {
+            return;
+        }
+        int position = firstIdAfter(id);
+        if (position > 0 && orderedIds[position - 1].equals(id)) {
+            idOrderedRows[position - 1] = row;
+            return;
+        }
+
+        int[] rows = new int[idOrderedRows.length + 1];
+        String[] ids = new String[orderedIds.length + 1];
+        System.arraycopy(idOrderedRows, 0, rows, 0, position);
+        System.arraycopy(orderedIds, 0, ids, 0, position);
+        rows[position] = row;
+        ids[position] = id;
+        System.arraycopy(idOrderedRows, position, rows, position + 1, idOrderedRows.length - position);
+        System.arraycopy(orderedIds, position, ids, position + 1, orderedIds.length - position);
+        idOrderedRows = rows;
+        orderedIds = ids;
+    }
+
+    private int firstIdAfter(String id) {
+        int low = 0;
+        int high = orderedIds.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (IdOrder.compare(orderedIds[mid], id) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,483 @@
+package com.example.rqchallenge.employees.cache;
+
+import com.example.rqchallenge.config.EmployeeCacheProperties;
+import com.example.rqchallenge.employees.model.Employee;
+import com.example.rqchallenge.employees.upstream.UpstreamRateLimiter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Holds the latest employee list fetched from the upstream.
+ * Fresh snapshots are served straight from memory, stale ones are served while a refresh runs in the background,
+ * and only a missing or expired snapshot makes the caller wait on the upstream.
+ * While the interval allows, a background prefetch reloads the snapshot before it expires, paced by {@link PrefetchPolicy}.
+ * Successful creates and deletes are written through to the current snapshot and journaled, so a refresh that does not
+ * reflect them yet does not undo them.
+ */
+public class EmployeeSnapshotCache implements AutoCloseable, MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeSnapshotCache.class);
+
+    private final Supplier<List<Employee>> loader;
+    private final Supplier<List<Employee>> backgroundLoader;
+    private final Duration ttl;
+    private final Duration maxStale;
+    private final Duration refreshInterval;
+    private final Clock clock;
+    private final ScheduledExecutorService refresher;
+    private final Executor refreshExecutor;
+    private final EmployeeSnapshotStore store;
+    private final Duration storeMaxAge;
+    private final Duration journalRetention;
+    private final PrefetchPolicy prefetchPolicy;
+
+    private final AtomicReference<EmployeeSnapshot> current = new AtomicReference<>();
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private final AtomicBoolean refreshScheduled = new AtomicBoolean();
+    private final AtomicLong versions = new AtomicLong();
+    // Locks rather than monitors: a virtual thread blocked on a monitor pins its carrier thread on JDK 21, and callers
+    // wait on these through upstream loads and snapshot write locks
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private final AtomicLong reads = new AtomicLong();
+    // Only touched by the prefetch chain, one step at a time
+    private long readsAtLastPrefetch;
+    private volatile int prefetchFailures;
+    private volatile Duration prefetchDelay = Duration.ZERO;
+    // Guarded by journalLock, which also orders snapshot swaps against mutations so none is applied to a replaced snapshot
+    private final Deque<Mutation> journal = new ArrayDeque<>();
+    private final ReentrantLock journalLock = new ReentrantLock();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong refreshes = new AtomicLong();
+    private final AtomicLong refreshNanos = new AtomicLong();
+    private final AtomicLong refreshFailures = new AtomicLong();
+
+    // The loader returns null when the upstream could not be read, in which case the current snapshot is kept
+    public EmployeeSnapshotCache(Supplier<List<Employee>> loader, EmployeeCacheProperties properties) {
+        this(loader, loader, properties, Clock.systemUTC());
+    }
+
+    public EmployeeSnapshotCache(Supplier<List<Employee>> loader, EmployeeCacheProperties properties, Clock clock) {
+        this(loader, loader, properties, clock);
+    }
+
+    // The background loader is used for refreshes nobody is waiting on, so it can be given a lower priority upstream
+    public EmployeeSnapshotCache(Supplier<List<Employee>> loader, Supplier<List<Employee>> backgroundLoader,
+                                 EmployeeCacheProperties properties, Clock clock) {
+        this(loader, backgroundLoader, properties, clock, null);
+    }
+
+    // Refreshes run on the given executor when there is one, the cache's own thread then only keeps time
+    public EmployeeSnapshotCache(Supplier<List<Employee>> loader, Supplier<List<Employee>> backgroundLoader,
+                                 EmployeeCacheProperties properties, Clock clock, Executor refreshExecutor) {
+        this(loader, backgroundLoader, properties, clock, refreshExecutor, null);
+    }
+
+    // With a rate limiter the prefetch keeps to its share of the upstream budget and sits out Retry-After backoffs
+    public EmployeeSnapshotCache(Supplier<List<Employee>> loader, Supplier<List<Employee>> backgroundLoader,
+                                 EmployeeCacheProperties properties, Clock clock, Executor refreshExecutor,
+                                 UpstreamRateLimiter rateLimiter) {
+        this.loader = loader;
+        this.backgroundLoader = backgroundLoader;
+        this.ttl = properties.getTtl();
+        this.maxStale = properties.getMaxStale();
+        this.refreshInterval = properties.getRefreshInterval();
+        this.clock = clock;
+        this.refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "employee-snapshot-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.refreshExecutor = refreshExecutor != null ? refreshExecutor : refresher;
+        this.store = properties.getSnapshotFile() != null ? new EmployeeSnapshotStore(properties.getSnapshotFile()) : null;
+        this.storeMaxAge = properties.getSnapshotFileMaxAge();
+        this.journalRetention = properties.getJournalRetention();
+        this.prefetchPolicy = new PrefetchPolicy(properties, rateLimiter);
+    }
+
+    public Optional<EmployeeSnapshot> get() {
+        Optional<EmployeeSnapshot> usable = getIfPresent();
+        if (usable.isPresent()) {
+            return usable;
+        }
+
+        // Missing or too old to serve without trying the upstream first, but an old snapshot still beats nothing if that fails
+        EmployeeSnapshot previous = current.get();
+        EmployeeSnapshot fresh = loadNow(previous);
+        return Optional.ofNullable(fresh != null ? fresh : previous);
+    }
+
+    // Never blocks: returns a fresh snapshot, or a stale one while scheduling a background refresh.
+    // Empty means the caller has to load the employees itself, reactive callers then hand them to update().
+    public Optional<EmployeeSnapshot> getIfPresent() {
+        reads.incrementAndGet();
+        EmployeeSnapshot snapshot = current.get();
+        if (snapshot == null) {
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+
+        Duration age = snapshot.age(clock);
+        if (age.compareTo(ttl) <= 0) {
+            hits.incrementAndGet();
+            return Optional.of(snapshot);
+        }
+        if (age.compareTo(ttl.plus(maxStale)) <= 0) {
+            staleHits.incrementAndGet();
+            refreshAsync();
+            return Optional.of(snapshot);
+        }
+        misses.incrementAndGet();
+        return Optional.empty();
+    }
+
+    public EmployeeSnapshot update(List<Employee> employees) {
+        EmployeeSnapshot snapshot = new EmployeeSnapshot(versions.incrementAndGet(), clock.instant(), new ArrayList<>(employees));
+        journalLock.lock();
+        try {
+            reconcile(snapshot);
+            current.set(snapshot);
+        } finally {
+            journalLock.unlock();
+        }
+        logger.debug("Loaded employee snapshot version {} with {} employees", snapshot.getVersion(), employees.size());
+        scheduleBackgroundRefresh();
+        persist(snapshot);
+        return snapshot;
+    }
+
+    // Warm start from the snapshot file: it is served as fresh for one ttl while a background refresh revalidates it.
+    // Does nothing when a snapshot is already loaded, no file is configured or the file is missing, unreadable or too old.
+    public boolean restore() {
+        if (store == null || current.get() != null) {
+            return false;
+        }
+        Optional<EmployeeSnapshotStore.Stored> stored = store.load();
+        if (stored.isEmpty()) {
+            return false;
+        }
+        Duration age = Duration.between(stored.get().getSavedAt(), clock.instant());
+        if (age.compareTo(storeMaxAge) > 0) {
+            logger.info("Ignoring employee snapshot file saved {} ago", age);
+            return false;
+        }
+
+        EmployeeSnapshot snapshot = new EmployeeSnapshot(versions.incrementAndGet(), clock.instant(), stored.get().getEmployees());
+        journalLock.lock();
+        try {
+            if (current.get() != null) {
+                return false;
+            }
+            reconcile(snapshot);
+            current.set(snapshot);
+        } finally {
+            journalLock.unlock();
+        }
+        logger.info("Restored {} employees from a snapshot file saved {} ago", snapshot.size(), age);
+        scheduleBackgroundRefresh();
+        refreshAsync();
+        return true;
+    }
+
+    // Write-through of an employee the upstream confirmed creating
+    public void applyCreate(Employee employee) {
+        journalLock.lock();
+        try {
+            journal.addLast(new Mutation(clock.instant(), employee, null));
+            expireJournal();
+            EmployeeSnapshot snapshot = current.get();
+            if (snapshot != null) {
+                snapshot.addEmployee(employee);
+            }
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    // Write-through of an id the upstream confirmed deleting
+    public void applyDelete(String id) {
+        journalLock.lock();
+        try {
+            journal.addLast(new Mutation(clock.instant(), null, id));
+            expireJournal();
+            EmployeeSnapshot snapshot = current.get();
+            if (snapshot != null) {
+                snapshot.removeEmployee(id);
+            }
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    // The snapshot a read would be served from right now, for conditional requests that may not need the data at all.
+    // Not counted as a cache request, but a stale snapshot still gets a background refresh.
+    public Optional<EmployeeSnapshot> peekServable() {
+        reads.incrementAndGet();
+        EmployeeSnapshot snapshot = current.get();
+        if (snapshot == null) {
+            return Optional.empty();
+        }
+        Duration age = snapshot.age(clock);
+        if (age.compareTo(ttl) <= 0) {
+            return Optional.of(snapshot);
+        }
+        if (age.compareTo(ttl.plus(maxStale)) <= 0) {
+            refreshAsync();
+            return Optional.of(snapshot);
+        }
+        return Optional.empty();
+    }
+
+    public Optional<EmployeeSnapshot> peek() {
+        return Optional.ofNullable(current.get());
+    }
+
+    public void refreshAsync() {
+        if (refreshing.compareAndSet(false, true)) {
+            try {
+                refreshExecutor.execute(() -> {
+                    try {
+                        refresh(backgroundLoader);
+                    } finally {
+                        refreshing.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                refreshing.set(false);
+                logger.warn("Background refresh rejected, the snapshot will be reloaded on the next expired read");
+            }
+        }
+    }
+
+    public void invalidate() {
+        current.set(null);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("employees.cache.requests", hits, AtomicLong::get)
+                .description("Snapshot reads served fresh from memory")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("employees.cache.requests", staleHits, AtomicLong::get)
+                .description("Snapshot reads served stale while a refresh runs")
+                .tag("result", "stale")
+                .register(registry);
+        FunctionCounter.builder("employees.cache.requests", misses, AtomicLong::get)
+                .description("Snapshot reads that had to wait on the upstream")
+                .tag("result", "miss")
+                .register(registry);
+        FunctionTimer.builder("employees.cache.refresh", this, cache -> cache.refreshes.get(), cache -> cache.refreshNanos.get(), TimeUnit.NANOSECONDS)
+                .description("Snapshot loads, including the upstream call and index builds")
+                .register(registry);
+        FunctionCounter.builder("employees.cache.refresh.failures", refreshFailures, AtomicLong::get)
+                .description("Snapshot loads that kept the previous snapshot")
+                .register(registry);
+        Gauge.builder("employees.cache.age", this, cache -> cache.peek().map(snapshot -> snapshot.age(clock).toMillis() / 1000.0).orElse(Double.NaN))
+                .description("Age of the current snapshot")
+                .baseUnit("seconds")
+                .register(registry);
+        Gauge.builder("employees.cache.size", this, cache -> cache.peek().map(EmployeeSnapshot::size).orElse(0))
+                .description("Employees in the current snapshot")
+                .register(registry);
+        Gauge.builder("employees.cache.prefetch.delay", this, cache -> cache.prefetchDelay.toMillis() / 1000.0)
+                .description("Delay chosen before the latest scheduled background refresh")
+                .baseUnit("seconds")
+                .register(registry);
+        Gauge.builder("employees.cache.journal.size", this, EmployeeSnapshotCache::journalSize)
+                .description("Local creates and deletes not yet reflected by the upstream")
+                .register(registry);
+    }
+
+    @Override
+    public void close() {
+        refresher.shutdownNow();
+    }
+
+    private EmployeeSnapshot loadNow(EmployeeSnapshot seen) {
+        loadLock.lock();
+        try {
+            // Another caller may have loaded while we were waiting for the lock
+            EmployeeSnapshot snapshot = current.get();
+            if (snapshot != null && snapshot != seen && snapshot.age(clock).compareTo(ttl) <= 0) {
+                return snapshot;
+            }
+            return refresh(loader);
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private EmployeeSnapshot refresh(Supplier<List<Employee>> source) {
+        long start = System.nanoTime();
+        try {
+            List<Employee> employees;
+            try {
+                employees = source.get();
+            } catch (RuntimeException e) {
+                logger.error("Failed to refresh employee snapshot", e);
+                refreshFailures.incrementAndGet();
+                return null;
+            }
+            if (employees == null) {
+                logger.warn("Employee snapshot refresh returned no data, keeping the previous snapshot");
+                refreshFailures.incrementAndGet();
+                return null;
+            }
+            return update(employees);
+        } finally {
+            refreshes.incrementAndGet();
+            refreshNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    // Replays journaled mutations the freshly loaded list does not reflect yet. One the upstream already shows is
+    // settled and dropped, as is anything older than the retention, after which the upstream's view wins.
+    private void reconcile(EmployeeSnapshot snapshot) {
+        expireJournal();
+        int replayed = 0;
+        for (Iterator<Mutation> mutations = journal.iterator(); mutations.hasNext(); ) {
+            Mutation mutation = mutations.next();
+            if (mutation.created != null) {
+                if (mutation.created.getId() != null && snapshot.find(mutation.created.getId()).isPresent()) {
+                    mutations.remove();
+                } else {
+                    snapshot.addEmployee(mutation.created);
+                    replayed++;
+                }
+            } else if (snapshot.removeEmployee(mutation.deletedId)) {
+                replayed++;
+            } else {
+                mutations.remove();
+            }
+        }
+        if (replayed > 0) {
+            logger.debug("Replayed {} local changes the upstream does not show yet onto snapshot version {}", replayed, snapshot.getVersion());
+        }
+    }
+
+    // Entries are appended in time order, so the expired ones are all at the head
+    private void expireJournal() {
+        Instant expiry = clock.instant().minus(journalRetention);
+        while (!journal.isEmpty() && journal.peekFirst().at.isBefore(expiry)) {
+            journal.removeFirst();
+        }
+    }
+
+    private void persist(EmployeeSnapshot snapshot) {
+        if (store == null) {
+            return;
+        }
+        Instant savedAt = clock.instant();
+        try {
+            refreshExecutor.execute(() -> {
+                // A newer snapshot will be saved by its own update
+                if (current.get() == snapshot) {
+                    store.save(snapshot, savedAt);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.warn("Snapshot save rejected, the file keeps the previous snapshot");
+        }
+    }
+
+    private void scheduleBackgroundRefresh() {
+        if (refreshInterval.isZero() || refreshInterval.isNegative() || !refreshScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        schedulePrefetch(prefetchPolicy.nextDelay(true, 0));
+    }
+
+    // Each prefetch schedules the next one once it is done, so the pace follows traffic, failures and the upstream budget
+    private void schedulePrefetch(Duration delay) {
+        prefetchDelay = delay;
+        try {
+            refresher.schedule(this::prefetch, delay.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            logger.debug("Snapshot prefetch stopped, the cache is closed");
+        }
+    }
+
+    private void prefetch() {
+        long seen = reads.get();
+        boolean read = seen != readsAtLastPrefetch;
+        readsAtLastPrefetch = seen;
+
+        // A stale read or a restore refreshed the snapshot meanwhile, so only the rest of the wait is left
+        EmployeeSnapshot snapshot = current.get();
+        Duration waited = prefetchDelay;
+        if (snapshot != null && snapshot.age(clock).compareTo(waited.dividedBy(2)) < 0) {
+            schedulePrefetch(waited.minus(snapshot.age(clock)));
+            return;
+        }
+        // Likewise when one is running right now
+        if (!refreshing.compareAndSet(false, true)) {
+            schedulePrefetch(prefetchPolicy.nextDelay(read, prefetchFailures));
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                boolean loaded = false;
+                try {
+                    loaded = refresh(backgroundLoader) != null;
+                } finally {
+                    refreshing.set(false);
+                    prefetchFailures = loaded ? 0 : prefetchFailures + 1;
+                    schedulePrefetch(prefetchPolicy.nextDelay(read, prefetchFailures));
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.set(false);
+            prefetchFailures++;
+            schedulePrefetch(prefetchPolicy.nextDelay(read, prefetchFailures));
+        }
+    }
+
+    private int journalSize() {
+        journalLock.lock();
+        try {
+            return journal.size();
+        } finally {
+            journalLock.unlock();
+        }
+    }
+
+    private static final class Mutation {
+        private final Instant at;
+        private final Employee created;
+        private final String deletedId;
+
+        private Mutation(Instant at, Employee created, String deletedId) {
+            this.at = at;
+            this.created = created;
+            this.deletedId = deletedId;
+        }
+    }
+}
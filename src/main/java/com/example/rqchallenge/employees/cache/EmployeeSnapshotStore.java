@@ -0,0 +1,175 @@
+package com.example.rqchallenge.employees.cache;
+
+import com.example.rqchallenge.employees.index.EmployeeTable;
+import com.example.rqchallenge.employees.model.Employee;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Keeps the latest snapshot in a local binary file so a restarted instance can serve reads before the upstream answers.
+ * <p>
+ * Layout: magic, format version, save time in epoch millis and row count, then per employee its id, name, profile
+ * image, salary and age as length-prefixed UTF-8 (-1 for null). Salary and age are kept as the upstream sent them,
+ * the table parses them again on load.
+ * A CRC32 of everything before it closes the file. Files are written to a temporary sibling and moved into place,
+ * so a reader never sees a half-written snapshot. A file of another format version, such as a version 1 file with
+ * int salary and age, is ignored and the snapshot is loaded from the upstream instead.
+ */
+public class EmployeeSnapshotStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeSnapshotStore.class);
+
+    private static final int MAGIC = 0x454D5053;
+    // Version 1 kept salary and age as ints, losing any the upstream sent in another form
+    private static final int FORMAT_VERSION = 2;
+
+    private final Path file;
+
+    public EmployeeSnapshotStore(Path file) {
+        this.file = file;
+    }
+
+    public void save(EmployeeSnapshot snapshot, Instant savedAt) {
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+            try {
+                snapshot.readTable(table -> {
+                    write(table, savedAt, temp);
+                    return null;
+                });
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            logger.debug("Saved employee snapshot version {} to {}", snapshot.getVersion(), file);
+        } catch (IOException | UncheckedIOException e) {
+            logger.warn("Failed to save the employee snapshot to {}", file, e);
+        }
+    }
+
+    public Optional<Stored> load() {
+        if (!Files.isReadable(file)) {
+            return Optional.empty();
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return Optional.of(read(buffer));
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Ignoring unreadable employee snapshot file {}", file, e);
+            return Optional.empty();
+        }
+    }
+
+    private static void write(EmployeeTable table, Instant savedAt, Path target) {
+        CRC32 checksum = new CRC32();
+        try (OutputStream raw = Files.newOutputStream(target);
+             CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(raw, 1 << 16), checksum);
+             DataOutputStream out = new DataOutputStream(checked)) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(savedAt.toEpochMilli());
+            out.writeInt(table.size());
+            for (int row = 0; row < table.rowCount(); row++) {
+                if (!table.isLive(row)) {
+                    continue;
+                }
+                writeString(out, table.id(row));
+                writeString(out, table.name(row));
+                writeString(out, table.profileImage(row));
+                writeString(out, table.salaryText(row));
+                writeString(out, table.ageText(row));
+            }
+            out.flush();
+            // Written past the checked stream so the checksum does not cover itself
+            new DataOutputStream(raw).writeLong(checksum.getValue());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Stored read(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < Long.BYTES * 2 || buffer.getInt(0) != MAGIC || buffer.getInt(Integer.BYTES) != FORMAT_VERSION) {
+            throw new IOException("Not an employee snapshot file of format version " + FORMAT_VERSION);
+        }
+        int bodyLength = buffer.limit() - Long.BYTES;
+        CRC32 checksum = new CRC32();
+        checksum.update(buffer.duplicate().limit(bodyLength));
+        if (checksum.getValue() != buffer.getLong(bodyLength)) {
+            throw new IOException("Checksum mismatch");
+        }
+
+        buffer.position(Integer.BYTES * 2);
+        Instant savedAt = Instant.ofEpochMilli(buffer.getLong());
+        int count = buffer.getInt();
+        List<Employee> employees = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String id = readString(buffer);
+            String name = readString(buffer);
+            String profileImage = readString(buffer);
+            String salary = readString(buffer);
+            String age = readString(buffer);
+            employees.add(new Employee(id, name, salary, age, profileImage));
+        }
+        return new Stored(savedAt, employees);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public static final class Stored {
+        private final Instant savedAt;
+        private final List<Employee> employees;
+
+        private Stored(Instant savedAt, List<Employee> employees) {
+            this.savedAt = savedAt;
+            this.employees = employees;
+        }
+
+        public Instant getSavedAt() {
+            return savedAt;
+        }
+
+        public List<Employee> getEmployees() {
+            return employees;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.rqchallenge.employees.cache;
+
+import com.example.rqchallenge.config.EmployeeCacheProperties;
+import com.example.rqchallenge.employees.upstream.UpstreamRateLimiter;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Picks the delay before the next background refresh. While the snapshot is being read it is refreshed inside its ttl,
+ * so reads stay fresh, and when nobody reads it it is only kept servable, inside ttl + max-stale. Either way a refresh
+ * never comes sooner than the configured share of the learned upstream budget allows, nor during a Retry-After
+ * backoff, and every delay is jittered so instances started together drift apart instead of refreshing in step.
+ */
+public class PrefetchPolicy {
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+    private static final int MAX_BACKOFF_DOUBLINGS = 5;
+
+    private final Duration busyInterval;
+    private final Duration idleInterval;
+    private final double jitter;
+    private final double budgetShare;
+    private final UpstreamRateLimiter rateLimiter;
+    private final DoubleSupplier random;
+
+    public PrefetchPolicy(EmployeeCacheProperties properties, UpstreamRateLimiter rateLimiter) {
+        this(properties, rateLimiter, () -> ThreadLocalRandom.current().nextDouble());
+    }
+
+    public PrefetchPolicy(EmployeeCacheProperties properties, UpstreamRateLimiter rateLimiter, DoubleSupplier random) {
+        this.jitter = Math.min(Math.max(properties.getRefreshJitter(), 0), 0.9);
+        // Leave room for the jitter so even the longest delay lands inside the window
+        this.busyInterval = min(properties.getRefreshInterval(), scale(properties.getTtl(), 1 / (1 + jitter)));
+        this.idleInterval = min(properties.getIdleRefreshInterval(), scale(properties.getTtl().plus(properties.getMaxStale()), 1 / (1 + jitter)));
+        this.budgetShare = properties.getRefreshBudgetShare();
+        this.rateLimiter = rateLimiter;
+        this.random = random;
+    }
+
+    // consecutiveFailures backs the interval off exponentially, up to the idle interval
+    public Duration nextDelay(boolean readSinceLastRefresh, int consecutiveFailures) {
+        Duration interval = readSinceLastRefresh ? busyInterval : idleInterval;
+        if (consecutiveFailures > 0) {
+            interval = min(interval.multipliedBy(1L << Math.min(consecutiveFailures, MAX_BACKOFF_DOUBLINGS)), max(interval, idleInterval));
+        }
+        Duration delay = scale(interval, 1 - jitter + 2 * jitter * random.getAsDouble());
+
+        Duration floor = budgetFloor();
+        if (delay.compareTo(floor) < 0) {
+            delay = scale(floor, 1 + jitter * random.getAsDouble());
+        }
+        return delay;
+    }
+
+    // Spacing that keeps background refreshes within their share of the upstream budget, and past any backoff
+    private Duration budgetFloor() {
+        if (rateLimiter == null) {
+            return Duration.ZERO;
+        }
+        Duration floor = Duration.ZERO;
+        double rate = rateLimiter.getRate();
+        if (budgetShare > 0 && rate > 0) {
+            floor = Duration.ofNanos(Math.round(NANOS_PER_SECOND / (rate * budgetShare)));
+        }
+        return max(floor, rateLimiter.getBlockedFor());
+    }
+
+    private static Duration scale(Duration duration, double factor) {
+        return Duration.ofNanos(Math.round(duration.toNanos() * factor));
+    }
+
+    private static Duration min(Duration left, Duration right) {
+        return left.compareTo(right) <= 0 ? left : right;
+    }
+
+    private static Duration max(Duration left, Duration right) {
+        return left.compareTo(right) >= 0 ? left : right;
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.rqchallenge.employees.controller;
+
+import com.example.rqchallenge.employees.model.CachedJsonList;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+
+/**
+ * Writes a {@link CachedJsonList} from its cached bytes instead of running it through Jackson again. Large lists go
+ * out as the cached gzip bytes when the request accepts gzip, decided here so {@code Content-Encoding} is only ever
+ * set on a body this converter compressed. The server's own compression then leaves it alone.
+ * Write only, and registered ahead of the Jackson converter.
+ */
+public class CachedJsonListHttpMessageConverter extends AbstractHttpMessageConverter<CachedJsonList<?>> {
+
+    // Below this a list is written uncompressed, a top 10 is smaller than the gzip framing saves
+    private static final int GZIP_MIN_ELEMENTS = 32;
+
+    private final ObjectWriter writer;
+
+    public CachedJsonListHttpMessageConverter(ObjectMapper objectMapper) {
+        super(MediaType.APPLICATION_JSON);
+        this.writer = objectMapper.writer();
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return CachedJsonList.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected CachedJsonList<?> readInternal(Class<? extends CachedJsonList<?>> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Cached responses are write only", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(CachedJsonList<?> list, HttpOutputMessage outputMessage) throws IOException {
+        boolean gzip = list.size() >= GZIP_MIN_ELEMENTS && acceptsGzip(currentAcceptEncoding());
+        byte[] body = gzip ? list.gzip(writer) : list.json(writer);
+        if (gzip) {
+            outputMessage.getHeaders().set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        outputMessage.getHeaders().setContentLength(body.length);
+        outputMessage.getBody().write(body);
+    }
+
+    // Async results are written on a dispatch that has the request bound as well
+    private static String currentAcceptEncoding() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes) {
+            return ((ServletRequestAttributes) attributes).getRequest().getHeader(HttpHeaders.ACCEPT_ENCODING);
+        }
+        return null;
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            if ("gzip".equalsIgnoreCase(parts[0].trim())) {
+                // gzip;q=0 means the client refuses it
+                return parts.length < 2 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+}
@@ -1,78 +1,207 @@
 package com.example.rqchallenge.employees.controller;
 
 import com.example.rqchallenge.IEmployeeController;
+import com.example.rqchallenge.config.BulkProperties;
+import com.example.rqchallenge.config.ThreadingProperties;
+import com.example.rqchallenge.employees.model.BulkItemResult;
+import com.example.rqchallenge.employees.model.CachedJsonList;
 import com.example.rqchallenge.employees.model.Employee;
+import com.example.rqchallenge.employees.model.EmployeeAnalytics;
+import com.example.rqchallenge.employees.model.EmployeePage;
+import com.example.rqchallenge.employees.model.Tagged;
 import com.example.rqchallenge.employees.service.EmployeeService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.util.UriUtils;
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 
 import org.springframework.web.bind.annotation.*;
 
 
 @RestController
+@Profile("!reactive")
 public class EmployeeController implements IEmployeeController {
 
+    private static final String NDJSON = "application/x-ndjson";
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int NDJSON_FLUSH_EVERY = 256;
+    private static final int MAX_BAND_EDGES = 100;
+    private static final int MAX_AUTOCOMPLETE_LIMIT = 50;
+    private static final int MAX_TOP_N = 1000;
+    private static final List<Integer> DEFAULT_SALARY_BUCKETS = List.of(50_000, 100_000, 150_000, 200_000, 300_000, 500_000);
+    private static final List<Integer> DEFAULT_AGE_BANDS = List.of(20, 30, 40, 50, 60);
+
     private final EmployeeService employeeService;
+    private final BulkProperties bulkProperties;
+    private final Duration requestTimeout;
+    private final Duration bulkRequestTimeout;
+    private final ObjectWriter employeeWriter;
 
     @Autowired
-    public EmployeeController(EmployeeService employeeService) {
+    public EmployeeController(EmployeeService employeeService, BulkProperties bulkProperties, ThreadingProperties threadingProperties,
+                              ObjectMapper objectMapper) {
         this.employeeService = employeeService;
+        this.bulkProperties = bulkProperties;
+        this.requestTimeout = threadingProperties.getRequestTimeout();
+        this.bulkRequestTimeout = threadingProperties.getBulkRequestTimeout();
+        this.employeeWriter = objectMapper.writerFor(Employee.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
     @Override
     @GetMapping("/employees")
-    public ResponseEntity<List<Employee>> getAllEmployees() {
-        List<Employee> employees = employeeService.getAllEmployees();
-        return ResponseEntity.ok(employees);
+    public CompletableFuture<ResponseEntity<List<Employee>>> getAllEmployees(WebRequest request) {
+        return conditionalGet(request, employeeService::getAllEmployeesTaggedAsync);
+    }
+
+    @Override
+    @GetMapping(value = "/employees", params = "limit")
+    public CompletableFuture<ResponseEntity<EmployeePage>> getEmployeesPage(@RequestParam int limit, @RequestParam(required = false) String after) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return badRequest();
+        }
+        return withTimeout(employeeService.getEmployeesPageAsync(limit, after).thenApply(ResponseEntity::ok), requestTimeout);
+    }
+
+    // One JSON object per line, flushed in small batches so consumers can start before the last employee is written
+    @Override
+    @GetMapping(value = "/employees", produces = NDJSON)
+    public CompletableFuture<ResponseEntity<StreamingResponseBody>> streamAllEmployees() {
+        return withTimeout(employeeService.getAllEmployeesAsync()
+                .thenApply(employees -> ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(ndjson(employees))), requestTimeout);
+    }
+
+    // The page's employees as lines, with the cursor for the following page in a Link header rather than in the body
+    @Override
+    @GetMapping(value = "/employees", params = "limit", produces = NDJSON)
+    public CompletableFuture<ResponseEntity<StreamingResponseBody>> streamEmployeesPage(@RequestParam int limit, @RequestParam(required = false) String after) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return badRequest();
+        }
+        return withTimeout(employeeService.getEmployeesPageAsync(limit, after).thenApply(page -> {
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON));
+            if (page.getNext() != null) {
+                response.header(HttpHeaders.LINK, nextPageLink(limit, page.getNext()));
+            }
+            return response.body(ndjson(page.getData()));
+        }), requestTimeout);
+    }
+
+    private StreamingResponseBody ndjson(List<Employee> employees) {
+        return output -> {
+            JsonGenerator generator = employeeWriter.getFactory().createGenerator(output);
+            generator.setRootValueSeparator(null);
+            int written = 0;
+            for (Employee employee : employees) {
+                employeeWriter.writeValue(generator, employee);
+                generator.writeRaw('\n');
+                if (++written % NDJSON_FLUSH_EVERY == 0) {
+                    generator.flush();
+                }
+            }
+            generator.flush();
+        };
     }
 
     @Override
     @GetMapping("/employees/search/{searchString}")
-    public ResponseEntity<List<Employee>> getEmployeesByNameSearch(@PathVariable String searchString) {
-        List<Employee> employees = employeeService.getEmployeesByNameSearch(searchString);
-        return ResponseEntity.ok(employees);
+    public CompletableFuture<ResponseEntity<List<Employee>>> getEmployeesByNameSearch(@PathVariable String searchString,
+                                                                                      @RequestParam(required = false) Integer limit) {
+        if (limit != null && limit < 1) {
+            return badRequest();
+        }
+        return withTimeout(employeeService.getEmployeesByNameSearchAsync(searchString, limit != null ? limit : Integer.MAX_VALUE)
+                .thenApply(ResponseEntity::ok), requestTimeout);
     }
 
+    // Type-ahead over name words, e.g. /employees/autocomplete?prefix=con&limit=5
     @Override
-    @GetMapping("/employee/{id}")
-    public ResponseEntity<Employee> getEmployeeById(@PathVariable String id) {
-        Employee employee = employeeService.getEmployeeByID(id);
-        if (employee != null) {
-            return ResponseEntity.ok(employee);
-        } else {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+    @GetMapping("/employees/autocomplete")
+    public CompletableFuture<ResponseEntity<List<Employee>>> getEmployeesByNamePrefix(@RequestParam String prefix,
+                                                                                      @RequestParam(defaultValue = "10") int limit) {
+        if (limit < 1 || limit > MAX_AUTOCOMPLETE_LIMIT) {
+            return badRequest();
         }
+        return withTimeout(employeeService.getEmployeesByNamePrefixAsync(prefix, limit).thenApply(ResponseEntity::ok), requestTimeout);
+    }
+
+    @Override
+    @GetMapping("/employee/{id}")
+    public CompletableFuture<ResponseEntity<Employee>> getEmployeeById(@PathVariable String id) {
+        return withTimeout(employeeService.getEmployeeByIDAsync(id).thenApply(employee -> {
+            if (employee != null) {
+                return ResponseEntity.ok(employee);
+            } else {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null);
+            }
+        }), requestTimeout);
     }
 
     @Override
     @GetMapping("/employees/highestSalary")
-    public ResponseEntity<Integer> getHighestSalaryOfEmployees() {
-        Integer highestSalary = employeeService.getHighestSalaryOfEmployees();
-        return ResponseEntity.ok(highestSalary);
+    public CompletableFuture<ResponseEntity<Integer>> getHighestSalaryOfEmployees(WebRequest request) {
+        return conditionalGet(request, employeeService::getHighestSalaryOfEmployeesTaggedAsync);
     }
 
     @Override
     @GetMapping("/employees/topTenHighestEarningEmployeeNames")
-    public ResponseEntity<List<String>> getTopTenHighestEarningEmployeeNames() {
-        List<String> topTenEarners = employeeService.getTop10HighestEarningEmployeeNames();
-        return ResponseEntity.ok(topTenEarners);
+    public CompletableFuture<ResponseEntity<List<String>>> getTopTenHighestEarningEmployeeNames(@RequestParam(defaultValue = "10") int topN,
+                                                                                               WebRequest request) {
+        if (topN < 1 || topN > MAX_TOP_N) {
+            return badRequest();
+        }
+        return conditionalGet(request, () -> employeeService.getTopHighestEarningEmployeeNamesTaggedAsync(topN));
+    }
+
+    // Salary and age breakdowns, e.g. /employees/analytics?salaryBuckets=50000,100000&ageBands=30,50
+    @Override
+    @GetMapping("/employees/analytics")
+    public CompletableFuture<ResponseEntity<EmployeeAnalytics>> getEmployeeAnalytics(@RequestParam(required = false) List<Integer> salaryBuckets,
+                                                                                     @RequestParam(required = false) List<Integer> ageBands,
+                                                                                     WebRequest request) {
+        int[] salaryEdges = bandEdges(salaryBuckets, DEFAULT_SALARY_BUCKETS);
+        int[] ageEdges = bandEdges(ageBands, DEFAULT_AGE_BANDS);
+        if (salaryEdges == null || ageEdges == null) {
+            return badRequest();
+        }
+        return conditionalGet(request, () -> employeeService.getEmployeeAnalyticsTaggedAsync(salaryEdges, ageEdges));
     }
 
     @Override
     @PostMapping("/employee")
-    public ResponseEntity<Employee> createEmployee(@RequestBody Map<String, Object> employeeInput) {
-        return ResponseEntity.ok(employeeService.createEmployee(employeeInput));
+    public CompletableFuture<ResponseEntity<Employee>> createEmployee(@RequestBody Map<String, Object> employeeInput) {
+        return withTimeout(employeeService.createEmployeeAsync(employeeInput).thenApply(ResponseEntity::ok), requestTimeout);
     }
 
     @Override
     @DeleteMapping("/employee/{id}")
-    public ResponseEntity<String> deleteEmployeeById(@PathVariable String id) {
-        String message = employeeService.deleteEmployeeById(id);
+    public CompletableFuture<ResponseEntity<String>> deleteEmployeeById(@PathVariable String id) {
+        return withTimeout(employeeService.deleteEmployeeByIdAsync(id).thenApply(EmployeeController::deleteResponse), requestTimeout);
+    }
+
+    private static ResponseEntity<String> deleteResponse(String message) {
         if ("Employee not found".equalsIgnoreCase(message)) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(message);
         } else if ("Rate limit exdeeded.".equalsIgnoreCase(message)) {
@@ -83,4 +212,106 @@ public class EmployeeController implements IEmployeeController {
             return ResponseEntity.ok("Successfully deleted record");
         }
     }
+
+    @Override
+    @PostMapping("/employees/bulk")
+    public CompletableFuture<ResponseEntity<List<BulkItemResult>>> createEmployees(@RequestBody List<Map<String, Object>> employeeInputs) {
+        if (employeeInputs.size() > bulkProperties.getMaxBatchSize()) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build());
+        }
+        return bulk(employeeService.createEmployeesAsync(employeeInputs));
+    }
+
+    // One result per distinct id, saying whether it was found, not found, rate limited or failed
+    @Override
+    @PostMapping("/employees/lookup")
+    public CompletableFuture<ResponseEntity<List<BulkItemResult>>> getEmployeesByIds(@RequestBody List<String> ids) {
+        if (ids.size() > bulkProperties.getMaxBatchSize()) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build());
+        }
+        return bulk(employeeService.getEmployeesByIdsAsync(ids));
+    }
+
+    @Override
+    @PostMapping("/employees/bulk-delete")
+    public CompletableFuture<ResponseEntity<List<BulkItemResult>>> deleteEmployeesById(@RequestBody List<String> ids) {
+        if (ids.size() > bulkProperties.getMaxBatchSize()) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build());
+        }
+        return bulk(employeeService.deleteEmployeesByIdAsync(ids));
+    }
+
+    // Polling clients that already hold the current snapshot get a 304 before anything is read or serialized.
+    // no-cache lets them keep the body but makes them revalidate on every use.
+    // The request itself is only read here, on the servlet thread, while the body may complete on another one.
+    // A 200 carries the ETag of the snapshot its body was read from, which a refresh since the check may have replaced.
+    private <T> CompletableFuture<ResponseEntity<T>> conditionalGet(WebRequest request, Supplier<CompletableFuture<Tagged<T>>> body) {
+        Optional<String> etag = employeeService.getEmployeesETag().map(EmployeeController::weakETag);
+        if (etag.isPresent() && request.checkNotModified(etag.get())) {
+            return CompletableFuture.completedFuture(
+                    ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag.get()).cacheControl(CacheControl.noCache()).build());
+        }
+
+        return withTimeout(body.get().thenApply(tagged -> {
+            T value = tagged.getValue();
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(CacheControl.noCache());
+            tagged.getETag().map(EmployeeController::weakETag).ifPresent(response::eTag);
+            // Cached lists may be written from their gzip bytes, CachedJsonListHttpMessageConverter decides once it is picked
+            if (value instanceof CachedJsonList) {
+                response.varyBy(HttpHeaders.ACCEPT_ENCODING);
+            }
+            return response.body(value);
+        }), requestTimeout);
+    }
+
+    // A bulk call that timed out is cancelled as well, so it stops sending the rest of its batch to the upstream
+    private <T> CompletableFuture<ResponseEntity<T>> bulk(CompletableFuture<T> work) {
+        return withTimeout(work.thenApply(ResponseEntity::ok), bulkRequestTimeout)
+                .whenComplete((response, error) -> work.cancel(false));
+    }
+
+    // A request still waiting on the upstream after its timeout is answered with a 504 instead of holding the client,
+    // one the request executor had no room for with a 503. The upstream call itself runs on, bounded by the client's call timeout.
+    private static <T> CompletableFuture<ResponseEntity<T>> withTimeout(CompletableFuture<ResponseEntity<T>> response, Duration timeout) {
+        return response.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS).exceptionally(error -> {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause instanceof TimeoutException) {
+                return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).build();
+            }
+            if (cause instanceof RejectedExecutionException) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+            }
+            throw error instanceof CompletionException ? (CompletionException) error : new CompletionException(error);
+        });
+    }
+
+    // Weak because the same content is sent gzipped or not, and Tomcat will not compress a response with a strong ETag
+    static String weakETag(String tag) {
+        return "W/\"" + tag + "\"";
+    }
+
+    // Relative to the request URI, so it keeps whatever host and path the client used
+    static String nextPageLink(int limit, String next) {
+        return "<?limit=" + limit + "&after=" + UriUtils.encodeQueryParam(next, StandardCharsets.UTF_8) + ">; rel=\"next\"";
+    }
+
+    private static <T> CompletableFuture<ResponseEntity<T>> badRequest() {
+        return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+    }
+
+    // Null when the client's edges are unusable, the defaults when it sent none
+    private static int[] bandEdges(List<Integer> requested, List<Integer> defaults) {
+        List<Integer> edges = requested == null || requested.isEmpty() ? defaults : requested;
+        if (edges.size() > MAX_BAND_EDGES) {
+            return null;
+        }
+        int[] result = new int[edges.size()];
+        for (int i = 0; i < result.length; i++) {
+            if (edges.get(i) == null || (i > 0 && edges.get(i) <= result[i - 1])) {
+                return null;
+            }
+            result[i] = edges.get(i);
+        }
+        return result;
+    }
 }
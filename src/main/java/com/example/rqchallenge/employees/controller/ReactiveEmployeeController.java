@@ -0,0 +1,224 @@
+package com.example.rqchallenge.employees.controller;
+
+import com.example.rqchallenge.config.BulkProperties;
+import com.example.rqchallenge.config.ThreadingProperties;
+import com.example.rqchallenge.employees.model.BulkItemResult;
+import com.example.rqchallenge.employees.model.Employee;
+import com.example.rqchallenge.employees.model.EmployeeAnalytics;
+import com.example.rqchallenge.employees.model.EmployeePage;
+import com.example.rqchallenge.employees.model.Tagged;
+import com.example.rqchallenge.employees.service.ReactiveEmployeeService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+// Same routes as IEmployeeController, served by WebFlux when the reactive profile is active
+@RestController
+@Profile("reactive")
+public class ReactiveEmployeeController {
+
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_BAND_EDGES = 100;
+    private static final int MAX_AUTOCOMPLETE_LIMIT = 50;
+    private static final int MAX_TOP_N = 1000;
+    private static final List<Integer> DEFAULT_SALARY_BUCKETS = List.of(50_000, 100_000, 150_000, 200_000, 300_000, 500_000);
+    private static final List<Integer> DEFAULT_AGE_BANDS = List.of(20, 30, 40, 50, 60);
+
+    private final ReactiveEmployeeService employeeService;
+    private final BulkProperties bulkProperties;
+    private final Duration requestTimeout;
+    private final Duration bulkRequestTimeout;
+
+    @Autowired
+    public ReactiveEmployeeController(ReactiveEmployeeService employeeService, BulkProperties bulkProperties, ThreadingProperties threadingProperties) {
+        this.employeeService = employeeService;
+        this.bulkProperties = bulkProperties;
+        this.requestTimeout = threadingProperties.getRequestTimeout();
+        this.bulkRequestTimeout = threadingProperties.getBulkRequestTimeout();
+    }
+
+    @GetMapping("/employees")
+    public Mono<ResponseEntity<List<Employee>>> getAllEmployees(ServerWebExchange exchange) {
+        return conditionalGet(exchange, employeeService::getAllEmployeesTagged);
+    }
+
+    @GetMapping(value = "/employees", params = "limit")
+    public Mono<ResponseEntity<EmployeePage>> getEmployeesPage(@RequestParam int limit, @RequestParam(required = false) String after) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return withTimeout(employeeService.getEmployeesPage(limit, after).map(ResponseEntity::ok));
+    }
+
+    // WebFlux writes each element of the Flux as its own line for application/x-ndjson
+    @GetMapping(value = "/employees", produces = "application/x-ndjson")
+    public Mono<ResponseEntity<Flux<Employee>>> streamAllEmployees() {
+        return withTimeout(employeeService.getAllEmployees().map(employees -> ResponseEntity.ok(Flux.fromIterable(employees))));
+    }
+
+    @GetMapping(value = "/employees", params = "limit", produces = "application/x-ndjson")
+    public Mono<ResponseEntity<Flux<Employee>>> streamEmployeesPage(@RequestParam int limit, @RequestParam(required = false) String after) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return withTimeout(employeeService.getEmployeesPage(limit, after).map(page -> {
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.getNext() != null) {
+                response.header(HttpHeaders.LINK, EmployeeController.nextPageLink(limit, page.getNext()));
+            }
+            return response.body(Flux.fromIterable(page.getData()));
+        }));
+    }
+
+    @GetMapping("/employees/search/{searchString}")
+    public Mono<ResponseEntity<List<Employee>>> getEmployeesByNameSearch(@PathVariable String searchString, @RequestParam(required = false) Integer limit) {
+        if (limit != null && limit < 1) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return withTimeout(employeeService.getEmployeesByNameSearch(searchString, limit != null ? limit : Integer.MAX_VALUE)
+                .map(ResponseEntity::ok));
+    }
+
+    @GetMapping("/employees/autocomplete")
+    public Mono<ResponseEntity<List<Employee>>> getEmployeesByNamePrefix(@RequestParam String prefix, @RequestParam(defaultValue = "10") int limit) {
+        if (limit < 1 || limit > MAX_AUTOCOMPLETE_LIMIT) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return withTimeout(employeeService.getEmployeesByNamePrefix(prefix, limit)
+                .map(ResponseEntity::ok));
+    }
+
+    @GetMapping("/employee/{id}")
+    public Mono<ResponseEntity<Employee>> getEmployeeById(@PathVariable String id) {
+        return withTimeout(employeeService.getEmployeeByID(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.NOT_FOUND).body(null)));
+    }
+
+    @GetMapping("/employees/highestSalary")
+    public Mono<ResponseEntity<Integer>> getHighestSalaryOfEmployees(ServerWebExchange exchange) {
+        return conditionalGet(exchange, employeeService::getHighestSalaryOfEmployeesTagged);
+    }
+
+    @GetMapping("/employees/topTenHighestEarningEmployeeNames")
+    public Mono<ResponseEntity<List<String>>> getTopTenHighestEarningEmployeeNames(@RequestParam(defaultValue = "10") int topN,
+                                                                                ServerWebExchange exchange) {
+        if (topN < 1 || topN > MAX_TOP_N) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return conditionalGet(exchange, () -> employeeService.getTopHighestEarningEmployeeNamesTagged(topN));
+    }
+
+    @GetMapping("/employees/analytics")
+    public Mono<ResponseEntity<EmployeeAnalytics>> getEmployeeAnalytics(@RequestParam(required = false) List<Integer> salaryBuckets,
+                                                                        @RequestParam(required = false) List<Integer> ageBands,
+                                                                        ServerWebExchange exchange) {
+        int[] salaryEdges = bandEdges(salaryBuckets, DEFAULT_SALARY_BUCKETS);
+        int[] ageEdges = bandEdges(ageBands, DEFAULT_AGE_BANDS);
+        if (salaryEdges == null || ageEdges == null) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+        return conditionalGet(exchange, () -> employeeService.getEmployeeAnalyticsTagged(salaryEdges, ageEdges));
+    }
+
+    @PostMapping("/employee")
+    public Mono<ResponseEntity<Employee>> createEmployee(@RequestBody Map<String, Object> employeeInput) {
+        return employeeService.createEmployee(employeeInput)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.ok(null));
+    }
+
+    @DeleteMapping("/employee/{id}")
+    public Mono<ResponseEntity<String>> deleteEmployeeById(@PathVariable String id) {
+        return employeeService.deleteEmployeeById(id).map(message -> {
+            if ("Employee not found".equalsIgnoreCase(message)) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(message);
+            } else if ("Rate limit exdeeded.".equalsIgnoreCase(message)) {
+                return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(message);
+            } else if ("Failed to delete".equalsIgnoreCase(message)) {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(message);
+            } else {
+                return ResponseEntity.ok("Successfully deleted record");
+            }
+        });
+    }
+
+    @PostMapping("/employees/bulk")
+    public Mono<ResponseEntity<List<BulkItemResult>>> createEmployees(@RequestBody List<Map<String, Object>> employeeInputs) {
+        if (employeeInputs.size() > bulkProperties.getMaxBatchSize()) {
+            return Mono.just(ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build());
+        }
+        return bulk(employeeService.createEmployees(employeeInputs));
+    }
+
+    // One result per distinct id, saying whether it was found, not found, rate limited or failed
+    @PostMapping("/employees/lookup")
+    public Mono<ResponseEntity<List<BulkItemResult>>> getEmployeesByIds(@RequestBody List<String> ids) {
+        if (ids.size() > bulkProperties.getMaxBatchSize()) {
+            return Mono.just(ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build());
+        }
+        return bulk(employeeService.getEmployeesByIds(ids));
+    }
+
+    @PostMapping("/employees/bulk-delete")
+    public Mono<ResponseEntity<List<BulkItemResult>>> deleteEmployeesById(@RequestBody List<String> ids) {
+        if (ids.size() > bulkProperties.getMaxBatchSize()) {
+            return Mono.just(ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).build());
+        }
+        return bulk(employeeService.deleteEmployeesById(ids));
+    }
+
+    // Same 504 as EmployeeController once the bulk timeout passes, the timeout cancels the rest of the batch
+    private <T> Mono<ResponseEntity<T>> bulk(Mono<T> work) {
+        return work.map(ResponseEntity::ok)
+                .timeout(bulkRequestTimeout, Mono.just(ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).build()));
+    }
+
+    // Same conditional GET handling as EmployeeController, the body is only subscribed to when the client's copy is out of date,
+    // and a 200 carries the ETag of the snapshot its body was read from
+    private <T> Mono<ResponseEntity<T>> conditionalGet(ServerWebExchange exchange, Supplier<Mono<Tagged<T>>> body) {
+        Optional<String> etag = employeeService.getEmployeesETag().map(EmployeeController::weakETag);
+        if (etag.isPresent() && exchange.checkNotModified(etag.get())) {
+            return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag.get()).cacheControl(CacheControl.noCache()).build());
+        }
+        return withTimeout(body.get().map(tagged -> {
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok().cacheControl(CacheControl.noCache());
+            tagged.getETag().map(EmployeeController::weakETag).ifPresent(response::eTag);
+            return response.body(tagged.getValue());
+        }));
+    }
+
+    // Same 504 as EmployeeController for a read still waiting on the upstream after the request timeout
+    private <T> Mono<ResponseEntity<T>> withTimeout(Mono<ResponseEntity<T>> response) {
+        return response.timeout(requestTimeout, Mono.just(ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).build()));
+    }
+
+    // Null when the client's edges are unusable, the defaults when it sent none
+    private static int[] bandEdges(List<Integer> requested, List<Integer> defaults) {
+        List<Integer> edges = requested == null || requested.isEmpty() ? defaults : requested;
+        if (edges.size() > MAX_BAND_EDGES) {
+            return null;
+        }
+        int[] result = new int[edges.size()];
+        for (int i = 0; i < result.length; i++) {
+            if (edges.get(i) == null || (i > 0 && edges.get(i) <= result[i - 1])) {
+                return null;
+            }
+            result[i] = edges.get(i);
+        }
+        return result;
+    }
+}
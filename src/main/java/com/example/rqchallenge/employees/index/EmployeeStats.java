@@ -0,0 +1,80 @@
+package com.example.rqchallenge.employees.index;
+
+/**
+ * Running salary and age aggregates over the live rows of an {@link EmployeeTable}, built once and then adjusted per
+ * added or removed row. Ages are counted per year so any set of age bands is a walk over at most {@link #MAX_AGE}
+ * counters, whatever the number of employees. Salary order questions go to {@link SalaryIndex} instead.
+ * Not thread-safe on its own, {@code EmployeeSnapshot} guards access.
+ */
+public class EmployeeStats {
+
+    // Ages above this are counted with it
+    public static final int MAX_AGE = 150;
+
+    private final EmployeeTable table;
+    private final int[] ageCounts = new int[MAX_AGE + 1];
+    private long salarySum;
+    private int salaryCount;
+    private long ageSum;
+    private int ageCount;
+
+    private EmployeeStats(EmployeeTable table) {
+        this.table = table;
+    }
+
+    public static EmployeeStats build(EmployeeTable table) {
+        EmployeeStats stats = new EmployeeStats(table);
+        for (int row = 0; row < table.rowCount(); row++) {
+            if (table.isLive(row)) {
+                stats.add(row);
+            }
+        }
+        return stats;
+    }
+
+    public void add(int row) {
+        update(row, 1);
+    }
+
+    public void remove(int row) {
+        update(row, -1);
+    }
+
+    public int salaryCount() {
+        return salaryCount;
+    }
+
+    public Double averageSalary() {
+        return salaryCount == 0 ? null : (double) salarySum / salaryCount;
+    }
+
+    public int ageCount() {
+        return ageCount;
+    }
+
+    public Double averageAge() {
+        return ageCount == 0 ? null : (double) ageSum / ageCount;
+    }
+
+    // Employees whose age falls in [from, to)
+    public int countAges(int from, int to) {
+        int count = 0;
+        for (int age = Math.max(from, 0); age < Math.min(to, MAX_AGE + 1); age++) {
+            count += ageCounts[age];
+        }
+        return count;
+    }
+
+    private void update(int row, int delta) {
+        if (table.hasSalary(row)) {
+            salarySum += (long) delta * table.salary(row);
+            salaryCount += delta;
+        }
+        if (table.hasAge(row)) {
+            int age = table.age(row);
+            ageSum += (long) delta * age;
+            ageCount += delta;
+            ageCounts[Math.min(Math.max(age, 0), MAX_AGE)] += delta;
+        }
+    }
+}
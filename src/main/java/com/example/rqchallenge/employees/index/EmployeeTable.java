@@ -0,0 +1,216 @@
+package com.example.rqchallenge.employees.index;
+
+import com.example.rqchallenge.employees.model.Employee;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column-per-field store of the loaded employees. Salary and age are parsed once on the way in and kept as ints,
+ * names and profile images are pooled so repeated values share one String, and ids map to row numbers.
+ * The ints feed the indexes and stats, a salary or age the upstream sent in another form ("320,800", "1e5", beyond
+ * int range) is also kept as sent so employees come back out unchanged.
+ * Deleted rows are tombstoned rather than compacted so row numbers held by the indexes stay valid.
+ * Not thread-safe on its own, {@code EmployeeSnapshot} guards access.
+ */
+public final class EmployeeTable {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmployeeTable.class);
+
+    private String[] ids;
+    private String[] names;
+    private int[] salaries;
+    private int[] ages;
+    // Only set where Integer.toString of the parsed value would not give back what the upstream sent
+    private String[] salaryTexts;
+    private String[] ageTexts;
+    private String[] profileImages;
+    private final BitSet salaryMissing = new BitSet();
+    private final BitSet ageMissing = new BitSet();
+    private final BitSet deleted = new BitSet();
+    private final Map<String, Integer> rowById;
+    private final Map<String, String> stringPool = new HashMap<>();
+    private int rowCount;
+    private int liveCount;
+
+    private EmployeeTable(int capacity) {
+        int size = Math.max(capacity, 16);
+        this.ids = new String[size];
+        this.names = new String[size];
+        this.salaries = new int[size];
+        this.ages = new int[size];
+        this.salaryTexts = new String[size];
+        this.ageTexts = new String[size];
+        this.profileImages = new String[size];
+        this.rowById = new HashMap<>(size * 2);
+    }
+
+    public static EmployeeTable of(List<Employee> employees) {
+        EmployeeTable table = new EmployeeTable(employees.size());
+        for (Employee employee : employees) {
+            table.append(employee);
+        }
+        return table;
+    }
+
+    // Adds the employee as a new row, replacing any live row with the same id, and returns the row number
+    public int append(Employee employee) {
+        if (employee.getId() != null) {
+            delete(employee.getId());
+        }
+        if (rowCount == ids.length) {
+            grow();
+        }
+
+        int row = rowCount++;
+        ids[row] = employee.getId();
+        names[row] = pooled(employee.getEmployeeName());
+        profileImages[row] = pooled(employee.getProfilePicture());
+        salaries[row] = parse(employee.getSalary(), row, salaryMissing, "salary", employee.getId());
+        ages[row] = parse(employee.getAge(), row, ageMissing, "age", employee.getId());
+        salaryTexts[row] = unlessRoundTrips(employee.getSalary(), hasSalary(row), salaries[row]);
+        ageTexts[row] = pooled(unlessRoundTrips(employee.getAge(), hasAge(row), ages[row]));
+        if (employee.getId() != null) {
+            rowById.put(employee.getId(), row);
+        }
+        liveCount++;
+        return row;
+    }
+
+    // Tombstones the live row with this id and returns its number, or -1 if there is none
+    public int delete(String id) {
+        Integer row = rowById.remove(id);
+        if (row == null) {
+            return -1;
+        }
+        deleted.set(row);
+        liveCount--;
+        return row;
+    }
+
+    public int rowOf(String id) {
+        Integer row = rowById.get(id);
+        return row == null ? -1 : row;
+    }
+
+    public boolean isLive(int row) {
+        return row >= 0 && row < rowCount && !deleted.get(row);
+    }
+
+    // Row numbers handed out so far, including tombstoned ones
+    public int rowCount() {
+        return rowCount;
+    }
+
+    public int size() {
+        return liveCount;
+    }
+
+    public String id(int row) {
+        return ids[row];
+    }
+
+    public String name(int row) {
+        return names[row];
+    }
+
+    public boolean hasSalary(int row) {
+        return !salaryMissing.get(row);
+    }
+
+    public int salary(int row) {
+        return salaries[row];
+    }
+
+    public boolean hasAge(int row) {
+        return !ageMissing.get(row);
+    }
+
+    public int age(int row) {
+        return ages[row];
+    }
+
+    public String profileImage(int row) {
+        return profileImages[row];
+    }
+
+    // Salary as the upstream sent it, null if it sent none
+    public String salaryText(int row) {
+        return text(salaryTexts[row], hasSalary(row), salaries[row]);
+    }
+
+    public String ageText(int row) {
+        return text(ageTexts[row], hasAge(row), ages[row]);
+    }
+
+    public Employee employee(int row) {
+        return new Employee(ids[row], names[row], salaryText(row), ageText(row), profileImages[row]);
+    }
+
+    public List<Employee> employees(int[] rows, int count) {
+        List<Employee> employees = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            employees.add(employee(rows[i]));
+        }
+        return employees;
+    }
+
+    public List<Employee> liveEmployees() {
+        List<Employee> employees = new ArrayList<>(liveCount);
+        for (int row = deleted.nextClearBit(0); row < rowCount; row = deleted.nextClearBit(row + 1)) {
+            employees.add(employee(row));
+        }
+        return employees;
+    }
+
+    private int parse(String value, int row, BitSet missing, String field, String id) {
+        if (value == null) {
+            missing.set(row);
+            return 0;
+        }
+        try {
+            missing.clear(row);
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            logger.warn("Ignoring unparseable {} '{}' of employee {}", field, value, id);
+            missing.set(row);
+            return 0;
+        }
+    }
+
+    private static String unlessRoundTrips(String value, boolean parsed, int parsedValue) {
+        return value == null || (parsed && value.equals(Integer.toString(parsedValue))) ? null : value;
+    }
+
+    private static String text(String original, boolean parsed, int parsedValue) {
+        if (original != null) {
+            return original;
+        }
+        return parsed ? Integer.toString(parsedValue) : null;
+    }
+
+    private String pooled(String value) {
+        if (value == null) {
+            return null;
+        }
+        String existing = stringPool.putIfAbsent(value, value);
+        return existing != null ? existing : value;
+    }
+
+    private void grow() {
+        int size = ids.length * 2;
+        ids = Arrays.copyOf(ids, size);
+        names = Arrays.copyOf(names, size);
+        salaries = Arrays.copyOf(salaries, size);
+        ages = Arrays.copyOf(ages, size);
+        salaryTexts = Arrays.copyOf(salaryTexts, size);
+        ageTexts = Arrays.copyOf(ageTexts, size);
+        profileImages = Arrays.copyOf(profileImages, size);
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.rqchallenge.employees.index;
+
+import java.util.Comparator;
+
+/**
+ * Orders employee ids numerically when they are plain digit strings (as the upstream's are) and lexically otherwise,
+ * numeric ids first. Used as the stable order behind pagination cursors.
+ */
+public final class IdOrder {
+
+    public static final Comparator<String> COMPARATOR = IdOrder::compare;
+
+    private IdOrder() {
+    }
+
+    public static int compare(String left, String right) {
+        boolean leftNumeric = isDigits(left);
+        boolean rightNumeric = isDigits(right);
+        if (leftNumeric && rightNumeric) {
+            String a = stripLeadingZeros(left);
+            String b = stripLeadingZeros(right);
+            // Without leading zeros a longer digit string is always the bigger number
+            return a.length() != b.length() ? Integer.compare(a.length(), b.length()) : a.compareTo(b);
+        }
+        if (leftNumeric != rightNumeric) {
+            return leftNumeric ? -1 : 1;
+        }
+        return left.compareTo(right);
+    }
+
+    private static boolean isDigits(String value) {
+        if (value.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String stripLeadingZeros(String digits) {
+        int start = 0;
+        while (start < digits.length() - 1 && digits.charAt(start) == '0') {
+            start++;
+        }
+        return digits.substring(start);
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.rqchallenge.employees.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Trigram inverted index over the normalized names of an {@link EmployeeTable}. A substring query of three or more
+ * characters intersects the posting lists of its trigrams and only verifies the surviving candidates,
+ * shorter queries fall back to a scan over the pre-normalized names. Results are table rows, deleted rows are skipped.
+ * Not thread safe, callers guard reads against {@link #add(int)}.
+ */
+public class NameIndex {
+
+    private static final int GRAM = 3;
+
+    // Lower numbers rank first
+    private static final int EXACT = 0;
+    private static final int PREFIX = 1;
+    private static final int WORD_PREFIX = 2;
+    private static final int SUBSTRING = 3;
+
+    private final EmployeeTable table;
+    private String[] normalizedNames;
+    private final Map<Long, int[]> postings;
+
+    private NameIndex(EmployeeTable table, String[] normalizedNames, Map<Long, int[]> postings) {
+        this.table = table;
+        this.normalizedNames = normalizedNames;
+        this.postings = postings;
+    }
+
+    public static NameIndex build(EmployeeTable table) {
+        String[] normalizedNames = new String[table.rowCount()];
+        Map<Long, IntList> building = new HashMap<>();
+
+        for (int row = 0; row < normalizedNames.length; row++) {
+            String name = normalize(table.name(row));
+            normalizedNames[row] = name;
+            for (int i = 0; i + GRAM <= name.length(); i++) {
+                IntList rows = building.computeIfAbsent(gram(name, i), key -> new IntList());
+                // A name repeating a trigram must only appear once in its posting list
+                if (rows.size == 0 || rows.values[rows.size - 1] != row) {
+                    rows.add(row);
+                }
+            }
+        }
+
+        Map<Long, int[]> postings = new HashMap<>(building.size() * 2);
+        building.forEach((gram, rows) -> postings.put(gram, rows.toArray()));
+        return new NameIndex(table, normalizedNames, postings);
+    }
+
+    // Indexes a row appended to the table after the build. Appended rows are always the highest row so far,
+    // which keeps every posting list sorted by just adding to its end.
+    public void add(int row) {
+        if (row >= normalizedNames.length) {
+            normalizedNames = Arrays.copyOf(normalizedNames, Math.max(row + 1, normalizedNames.length + (normalizedNames.length >> 1)));
+        }
+        String name = normalize(table.name(row));
+        normalizedNames[row] = name;
+        for (int i = 0; i + GRAM <= name.length(); i++) {
+            int[] rows = postings.get(gram(name, i));
+            if (rows == null) {
+                postings.put(gram(name, i), new int[]{row});
+            } else if (rows[rows.length - 1] != row) {
+                int[] grown = Arrays.copyOf(rows, rows.length + 1);
+                grown[rows.length] = row;
+                postings.put(gram(name, i), grown);
+            }
+        }
+    }
+
+    // Rows whose name contains the query, best matches first, at most limit of them
+    public int[] search(String query, int limit) {
+        String needle = normalize(query);
+        if (needle.isEmpty() || limit <= 0) {
+            return new int[0];
+        }
+
+        String wordNeedle = " " + needle;
+        List<Match> matches = new ArrayList<>();
+        if (needle.length() < GRAM) {
+            for (int row = 0; row < table.rowCount(); row++) {
+                addIfMatches(matches, row, needle, wordNeedle);
+            }
+        } else {
+            int[] candidates = candidates(needle);
+            for (int row : candidates) {
+                addIfMatches(matches, row, needle, wordNeedle);
+            }
+        }
+
+        matches.sort(Comparator.comparingInt((Match m) -> m.rank)
+                .thenComparingInt(m -> normalizedNames[m.row].length())
+                .thenComparingInt(m -> m.row));
+
+        int[] rows = new int[Math.min(limit, matches.size())];
+        for (int i = 0; i < rows.length; i++) {
+            rows[i] = matches.get(i).row;
+        }
+        return rows;
+    }
+
+    private int[] candidates(String needle) {
+        int gramCount = needle.length() - GRAM + 1;
+        int[][] lists = new int[gramCount][];
+        for (int i = 0; i < gramCount; i++) {
+            int[] rows = postings.get(gram(needle, i));
+            if (rows == null) {
+                return new int[0];
+            }
+            lists[i] = rows;
+        }
+
+        // Intersect starting from the shortest list so the working set only ever shrinks
+        Arrays.sort(lists, Comparator.comparingInt(list -> list.length));
+        int[] result = lists[0];
+        for (int i = 1; i < lists.length && result.length > 0; i++) {
+            result = intersect(result, lists[i]);
+        }
+        return result;
+    }
+
+    private void addIfMatches(List<Match> matches, int row, String needle, String wordNeedle) {
+        if (!table.isLive(row)) {
+            return;
+        }
+        String name = normalizedNames[row];
+        int position = name.indexOf(needle);
+        if (position < 0) {
+            return;
+        }
+
+        int rank;
+        if (name.length() == needle.length()) {
+            rank = EXACT;
+        } else if (position == 0) {
+            rank = PREFIX;
+        } else if (Character.isWhitespace(name.charAt(position - 1)) || name.contains(wordNeedle)) {
+            rank = WORD_PREFIX;
+        } else {
+            rank = SUBSTRING;
+        }
+        matches.add(new Match(row, rank));
+    }
+
+    private static int[] intersect(int[] left, int[] right) {
+        int[] out = new int[Math.min(left.length, right.length)];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] == right[j]) {
+                out[n++] = left[i];
+                i++;
+                j++;
+            } else if (left[i] < right[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static long gram(String text, int offset) {
+        return ((long) text.charAt(offset) << 32) | ((long) text.charAt(offset + 1) << 16) | text.charAt(offset + 2);
+    }
+
+    static String normalize(String name) {
+        return name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Match {
+        private final int row;
+        private final int rank;
+
+        private Match(int row, int rank) {
+            this.row = row;
+            this.rank = rank;
+        }
+    }
+
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        private void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        private int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.rqchallenge.employees.index;
+
+import java.util.Arrays;
+
+/**
+ * Sorted prefix array over the normalized names of an {@link EmployeeTable}, for type-ahead lookups.
+ * Every name contributes one entry per word, standing for the name from that word on, so "conor nolan" can be found
+ * by "con", "conor no" and "nol". The entries matching a prefix are one contiguous range found by binary search,
+ * from which the best few rows are picked without sorting the range. Deleted rows are skipped.
+ * Not thread safe, callers guard reads against {@link #add(int)}.
+ */
+public class PrefixIndex {
+
+    // Lower numbers rank first
+    private static final int EXACT = 0;
+    private static final int PREFIX = 1;
+    private static final int WORD_PREFIX = 2;
+
+    private final EmployeeTable table;
+    private String[] normalizedNames;
+    // row << 32 | offset of the word the entry starts at, ordered by the name text from that offset
+    private long[] entries;
+
+    private PrefixIndex(EmployeeTable table, String[] normalizedNames, long[] entries) {
+        this.table = table;
+        this.normalizedNames = normalizedNames;
+        this.entries = entries;
+    }
+
+    public static PrefixIndex build(EmployeeTable table) {
+        String[] normalizedNames = new String[table.rowCount()];
+        int count = 0;
+        for (int row = 0; row < normalizedNames.length; row++) {
+            normalizedNames[row] = normalize(table.name(row));
+            count += wordCount(normalizedNames[row]);
+        }
+
+        Long[] building = new Long[count];
+        int n = 0;
+        for (int row = 0; row < normalizedNames.length; row++) {
+            String name = normalizedNames[row];
+            for (int offset = 0; offset < name.length(); offset = nextWord(name, offset)) {
+                building[n++] = entry(row, offset);
+            }
+        }
+        Arrays.sort(building, (left, right) -> compareEntries(normalizedNames, left, right));
+
+        long[] entries = new long[count];
+        for (int i = 0; i < count; i++) {
+            entries[i] = building[i];
+        }
+        return new PrefixIndex(table, normalizedNames, entries);
+    }
+
+    // Indexes a row appended to the table after the build
+    public void add(int row) {
+        if (row >= normalizedNames.length) {
+            normalizedNames = Arrays.copyOf(normalizedNames, Math.max(row + 1, normalizedNames.length + (normalizedNames.length >> 1)));
+        }
+        String name = normalize(table.name(row));
+        normalizedNames[row] = name;
+        for (int offset = 0; offset < name.length(); offset = nextWord(name, offset)) {
+            long entry = entry(row, offset);
+            int low = 0;
+            int high = entries.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compareEntries(normalizedNames, entries[mid], entry) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            long[] grown = new long[entries.length + 1];
+            System.arraycopy(entries, 0, grown, 0, low);
+            grown[low] = entry;
+            System.arraycopy(entries, low, grown, low + 1, entries.length - low);
+            entries = grown;
+        }
+    }
+
+    // Rows with a word starting with the prefix, whole-name matches first, then shorter names, at most limit of them
+    public int[] complete(String prefix, int limit) {
+        String needle = normalize(prefix);
+        if (needle.isEmpty() || limit <= 0) {
+            return new int[0];
+        }
+        int from = bound(needle, false);
+        int to = bound(needle, true);
+
+        // Best limit rows so far, kept sorted by score. A row matching through several words keeps its best score.
+        long[] scores = new long[limit];
+        int[] rows = new int[limit];
+        int size = 0;
+        for (int i = from; i < to; i++) {
+            int row = row(entries[i]);
+            if (!table.isLive(row)) {
+                continue;
+            }
+            long score = score(needle, row, offset(entries[i]));
+            if (size == limit && score >= scores[size - 1]) {
+                continue;
+            }
+            int existing = indexOf(rows, size, row);
+            if (existing >= 0) {
+                if (score >= scores[existing]) {
+                    continue;
+                }
+                System.arraycopy(scores, existing + 1, scores, existing, size - existing - 1);
+                System.arraycopy(rows, existing + 1, rows, existing, size - existing - 1);
+                size--;
+            }
+            int position = size < limit ? size : limit - 1;
+            while (position > 0 && scores[position - 1] > score) {
+                scores[position] = scores[position - 1];
+                rows[position] = rows[position - 1];
+                position--;
+            }
+            scores[position] = score;
+            rows[position] = row;
+            size = Math.min(size + 1, limit);
+        }
+        return Arrays.copyOf(rows, size);
+    }
+
+    // First entry whose text from its offset, cut to the prefix length, sorts after the prefix, or not before it
+    private int bound(String prefix, boolean after) {
+        int low = 0;
+        int high = entries.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int compared = comparePrefix(normalizedNames[row(entries[mid])], offset(entries[mid]), prefix);
+            if (compared < 0 || (after && compared == 0)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Rank, then name length, then row, packed so smaller is better
+    private long score(String needle, int row, int offset) {
+        String name = normalizedNames[row];
+        int rank = offset > 0 ? WORD_PREFIX : name.length() == needle.length() ? EXACT : PREFIX;
+        return ((long) rank << 56) | ((long) Math.min(name.length(), 0xFFFF) << 32) | row;
+    }
+
+    private static int indexOf(int[] rows, int size, int row) {
+        for (int i = 0; i < size; i++) {
+            if (rows[i] == row) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int comparePrefix(String name, int offset, String prefix) {
+        int length = Math.min(name.length() - offset, prefix.length());
+        for (int i = 0; i < length; i++) {
+            int compared = Character.compare(name.charAt(offset + i), prefix.charAt(i));
+            if (compared != 0) {
+                return compared;
+            }
+        }
+        return length == prefix.length() ? 0 : -1;
+    }
+
+    private static int compareEntries(String[] names, long left, long right) {
+        String leftName = names[row(left)];
+        String rightName = names[row(right)];
+        int leftOffset = offset(left);
+        int rightOffset = offset(right);
+        int length = Math.min(leftName.length() - leftOffset, rightName.length() - rightOffset);
+        for (int i = 0; i < length; i++) {
+            int compared = Character.compare(leftName.charAt(leftOffset + i), rightName.charAt(rightOffset + i));
+            if (compared != 0) {
+                return compared;
+            }
+        }
+        int compared = Integer.compare(leftName.length() - leftOffset, rightName.length() - rightOffset);
+        return compared != 0 ? compared : Long.compare(left, right);
+    }
+
+    private static int wordCount(String name) {
+        int count = 0;
+        for (int offset = 0; offset < name.length(); offset = nextWord(name, offset)) {
+            count++;
+        }
+        return count;
+    }
+
+    // Normalized names have single spaces between words, so the next word starts just after the next space
+    private static int nextWord(String name, int offset) {
+        int space = name.indexOf(' ', offset);
+        return space < 0 ? name.length() : space + 1;
+    }
+
+    private static long entry(int row, int offset) {
+        return ((long) row << 32) | offset;
+    }
+
+    private static int row(long entry) {
+        return (int) (entry >>> 32);
+    }
+
+    private static int offset(long entry) {
+        return (int) entry;
+    }
+
+    // Same as the name index, with runs of whitespace collapsed so every word starts after exactly one space.
+    // trim() leaves Unicode spaces such as U+3000 at either end, so those are dropped here too.
+    static String normalize(String name) {
+        String normalized = NameIndex.normalize(name);
+        StringBuilder collapsed = new StringBuilder(normalized.length());
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                collapsed.append(c);
+            } else if (collapsed.length() > 0 && collapsed.charAt(collapsed.length() - 1) != ' ') {
+                collapsed.append(' ');
+            }
+        }
+        if (collapsed.length() > 0 && collapsed.charAt(collapsed.length() - 1) == ' ') {
+            collapsed.setLength(collapsed.length() - 1);
+        }
+        return collapsed.toString();
+    }
+}
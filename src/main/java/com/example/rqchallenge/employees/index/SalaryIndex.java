@@ -0,0 +1,113 @@
+package com.example.rqchallenge.employees.index;
+
+import java.util.Arrays;
+
+/**
+ * Rows of an {@link EmployeeTable} ordered by salary, highest first, ties in row order. The highest salary is a
+ * single array read and the top N is the first N rows. Rows without a parseable salary are left out.
+ * Not thread-safe on its own, {@code EmployeeSnapshot} guards access.
+ */
+public class SalaryIndex {
+
+    private final EmployeeTable table;
+    private int[] rows;
+    private int size;
+
+    private SalaryIndex(EmployeeTable table, int[] rows, int size) {
+        this.table = table;
+        this.rows = rows;
+        this.size = size;
+    }
+
+    public static SalaryIndex build(EmployeeTable table) {
+        // Sort (salary descending, row ascending) as packed primitive keys instead of boxing a comparator per row
+        long[] keys = new long[table.rowCount()];
+        int count = 0;
+        for (int row = 0; row < table.rowCount(); row++) {
+            if (table.isLive(row) && table.hasSalary(row)) {
+                keys[count++] = ((long) ~table.salary(row) << 32) | row;
+            }
+        }
+        Arrays.sort(keys, 0, count);
+
+        int[] rows = new int[Math.max(count, 16)];
+        for (int i = 0; i < count; i++) {
+            rows[i] = (int) keys[i];
+        }
+        return new SalaryIndex(table, rows, count);
+    }
+
+    public int highestSalary() {
+        return size == 0 ? 0 : table.salary(rows[0]);
+    }
+
+    // Rows of the top n earners, highest first
+    public int[] topRows(int n) {
+        return Arrays.copyOf(rows, Math.min(Math.max(n, 0), size));
+    }
+
+    // Nearest-rank quantile, e.g. 0.5 for the median. Exact and O(1) since the rows are already in salary order.
+    public int salaryAtQuantile(double quantile) {
+        if (size == 0) {
+            return 0;
+        }
+        int rank = Math.max(1, (int) Math.ceil(quantile * size));
+        // rows run highest first, so the rank-th lowest salary sits rank entries from the end
+        return table.salary(rows[size - Math.min(rank, size)]);
+    }
+
+    public int lowestSalary() {
+        return size == 0 ? 0 : table.salary(rows[size - 1]);
+    }
+
+    // Number of rows earning at least this much, by binary search
+    public int countAtLeast(int salary) {
+        return salary == Integer.MIN_VALUE ? size : position(salary - 1, -1);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void add(int row) {
+        if (!table.hasSalary(row)) {
+            return;
+        }
+        if (size == rows.length) {
+            rows = Arrays.copyOf(rows, size * 2);
+        }
+        int position = position(table.salary(row), row);
+        System.arraycopy(rows, position, rows, position + 1, size - position);
+        rows[position] = row;
+        size++;
+    }
+
+    public boolean remove(int row) {
+        if (!table.hasSalary(row)) {
+            return false;
+        }
+        int position = position(table.salary(row), row);
+        if (position < size && rows[position] == row) {
+            System.arraycopy(rows, position + 1, rows, position, size - position - 1);
+            size--;
+            return true;
+        }
+        return false;
+    }
+
+    // Index of the first entry that does not sort before (salary, row)
+    private int position(int salary, int row) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int midSalary = table.salary(rows[mid]);
+            if (midSalary > salary || (midSalary == salary && rows[mid] < row)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.rqchallenge.employees.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkItemResult {
+
+    public static final String SUCCESS = "success";
+    public static final String FAILED = "failed";
+    public static final String NOT_FOUND = "not_found";
+    public static final String RATE_LIMITED = "rate_limited";
+
+    // Position of the item in the request
+    private int index;
+
+    private String id;
+
+    private String status;
+
+    private String message;
+
+    private Employee employee;
+
+    public BulkItemResult() {
+    }
+
+    public BulkItemResult(int index, String id, String status, String message, Employee employee) {
+        this.index = index;
+        this.id = id;
+        this.status = status;
+        this.message = message;
+        this.employee = employee;
+    }
+
+    // Result for the message deleteEmployeeById answers with, the delete endpoints report their outcome as text
+    public static BulkItemResult forDelete(int index, String id, String message) {
+        String status;
+        if ("Employee not found".equalsIgnoreCase(message)) {
+            status = NOT_FOUND;
+        } else if ("Rate limit exdeeded.".equalsIgnoreCase(message)) {
+            status = RATE_LIMITED;
+        } else if ("Failed to delete".equalsIgnoreCase(message)) {
+            status = FAILED;
+        } else {
+            status = SUCCESS;
+        }
+        return new BulkItemResult(index, id, status, message, null);
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public Employee getEmployee() {
+        return employee;
+    }
+
+    public void setEmployee(Employee employee) {
+        this.employee = employee;
+    }
+}
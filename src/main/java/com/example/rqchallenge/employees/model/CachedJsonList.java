@@ -0,0 +1,69 @@
+package com.example.rqchallenge.employees.model;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Read-only list that keeps its JSON encoding, and a gzip of that, once they have been asked for. Results shared by
+ * every reader of a snapshot are handed out as one of these so a hot endpoint serializes them once, not per request.
+ * The encodings come from the first writer passed in, callers are expected to always use the same one.
+ */
+public final class CachedJsonList<E> extends AbstractList<E> implements RandomAccess {
+
+    private final List<E> values;
+    // Not a monitor, so virtual threads waiting on the first serialization do not pin their carriers
+    private final ReentrantLock lock = new ReentrantLock();
+    private byte[] json;
+    private byte[] gzip;
+
+    public CachedJsonList(List<E> values) {
+        this.values = values;
+    }
+
+    @Override
+    public E get(int index) {
+        return values.get(index);
+    }
+
+    @Override
+    public int size() {
+        return values.size();
+    }
+
+    // Concurrent first callers wait for one serialization instead of each doing their own
+    public byte[] json(ObjectWriter writer) throws IOException {
+        lock.lock();
+        try {
+            if (json == null) {
+                json = writer.writeValueAsBytes(values);
+            }
+            return json;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public byte[] gzip(ObjectWriter writer) throws IOException {
+        lock.lock();
+        try {
+            if (gzip == null) {
+                byte[] plain = json(writer);
+                ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(plain.length / 4, 64));
+                try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+                    out.write(plain);
+                }
+                gzip = compressed.toByteArray();
+            }
+            return gzip;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
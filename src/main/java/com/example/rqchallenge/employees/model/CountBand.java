@@ -0,0 +1,48 @@
+package com.example.rqchallenge.employees.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CountBand {
+
+    // Inclusive, null for the open-ended lowest band
+    private Integer from;
+
+    // Exclusive, null for the open-ended highest band
+    private Integer to;
+
+    private int count;
+
+    public CountBand() {
+    }
+
+    public CountBand(Integer from, Integer to, int count) {
+        this.from = from;
+        this.to = to;
+        this.count = count;
+    }
+
+    public Integer getFrom() {
+        return from;
+    }
+
+    public void setFrom(Integer from) {
+        this.from = from;
+    }
+
+    public Integer getTo() {
+        return to;
+    }
+
+    public void setTo(Integer to) {
+        this.to = to;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+}
@@ -1,18 +1,23 @@
 package com.example.rqchallenge.employees.model;
 
+import com.fasterxml.jackson.annotation.JsonAlias;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 public class Employee {
 
     private String id;
 
+    // The upstream /create response uses the short field names
     @JsonProperty("employee_name")
+    @JsonAlias("name")
     private String employeeName;
 
     @JsonProperty("employee_salary")
+    @JsonAlias("salary")
     private String salary;
 
     @JsonProperty("employee_age")
+    @JsonAlias("age")
     private String age;
 
     @JsonProperty("profile_image")
@@ -0,0 +1,131 @@
+package com.example.rqchallenge.employees.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+// Salary figures only cover employees with a known salary and age figures those with a known age,
+// the averages are left out when there are none
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class EmployeeAnalytics {
+
+    private int employeeCount;
+
+    private int salaryCount;
+
+    private Double averageSalary;
+
+    private Integer lowestSalary;
+
+    private Integer medianSalary;
+
+    private Integer p90Salary;
+
+    private Integer p99Salary;
+
+    private Integer highestSalary;
+
+    private List<CountBand> salaryHistogram;
+
+    private int ageCount;
+
+    private Double averageAge;
+
+    private List<CountBand> ageBands;
+
+    public int getEmployeeCount() {
+        return employeeCount;
+    }
+
+    public void setEmployeeCount(int employeeCount) {
+        this.employeeCount = employeeCount;
+    }
+
+    public int getSalaryCount() {
+        return salaryCount;
+    }
+
+    public void setSalaryCount(int salaryCount) {
+        this.salaryCount = salaryCount;
+    }
+
+    public Double getAverageSalary() {
+        return averageSalary;
+    }
+
+    public void setAverageSalary(Double averageSalary) {
+        this.averageSalary = averageSalary;
+    }
+
+    public Integer getLowestSalary() {
+        return lowestSalary;
+    }
+
+    public void setLowestSalary(Integer lowestSalary) {
+        this.lowestSalary = lowestSalary;
+    }
+
+    public Integer getMedianSalary() {
+        return medianSalary;
+    }
+
+    public void setMedianSalary(Integer medianSalary) {
+        this.medianSalary = medianSalary;
+    }
+
+    public Integer getP90Salary() {
+        return p90Salary;
+    }
+
+    public void setP90Salary(Integer p90Salary) {
+        this.p90Salary = p90Salary;
+    }
+
+    public Integer getP99Salary() {
+        return p99Salary;
+    }
+
+    public void setP99Salary(Integer p99Salary) {
+        this.p99Salary = p99Salary;
+    }
+
+    public Integer getHighestSalary() {
+        return highestSalary;
+    }
+
+    public void setHighestSalary(Integer highestSalary) {
+        this.highestSalary = highestSalary;
+    }
+
+    public List<CountBand> getSalaryHistogram() {
+        return salaryHistogram;
+    }
+
+    public void setSalaryHistogram(List<CountBand> salaryHistogram) {
+        this.salaryHistogram = salaryHistogram;
+    }
+
+    public int getAgeCount() {
+        return ageCount;
+    }
+
+    public void setAgeCount(int ageCount) {
+        this.ageCount = ageCount;
+    }
+
+    public Double getAverageAge() {
+        return averageAge;
+    }
+
+    public void setAverageAge(Double averageAge) {
+        this.averageAge = averageAge;
+    }
+
+    public List<CountBand> getAgeBands() {
+        return ageBands;
+    }
+
+    public void setAgeBands(List<CountBand> ageBands) {
+        this.ageBands = ageBands;
+    }
+}
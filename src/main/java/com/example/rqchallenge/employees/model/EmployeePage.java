@@ -0,0 +1,35 @@
+package com.example.rqchallenge.employees.model;
+
+import java.util.List;
+
+public class EmployeePage {
+
+    private List<Employee> data;
+
+    // Pass as "after" to fetch the following page, null on the last page
+    private String next;
+
+    public EmployeePage() {
+    }
+
+    public EmployeePage(List<Employee> data, String next) {
+        this.data = data;
+        this.next = next;
+    }
+
+    public List<Employee> getData() {
+        return data;
+    }
+
+    public void setData(List<Employee> data) {
+        this.data = data;
+    }
+
+    public String getNext() {
+        return next;
+    }
+
+    public void setNext(String next) {
+        this.next = next;
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.rqchallenge.employees.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class EmployeeResponse {
+
+    private String status;
+
+    private Employee data;
+
+    private String message;
+
+    public EmployeeResponse() {
+    }
+
+    public EmployeeResponse(String status, Employee data) {
+        this.status = status;
+        this.data = data;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Employee getData() {
+        return data;
+    }
+
+    public void setData(Employee data) {
+        this.data = data;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.rqchallenge.employees.model;
+
+import java.util.Optional;
+
+// A read together with the ETag of the snapshot that answered it, so the two can never come from different snapshots
+public class Tagged<T> {
+
+    private final String eTag;
+    private final T value;
+
+    public Tagged(String eTag, T value) {
+        this.eTag = eTag;
+        this.value = value;
+    }
+
+    // Empty when there was no snapshot to answer from
+    public Optional<String> getETag() {
+        return Optional.ofNullable(eTag);
+    }
+
+    public T getValue() {
+        return value;
+    }
+}
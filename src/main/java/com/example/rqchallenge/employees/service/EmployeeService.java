@@ -1,141 +1,289 @@
 package com.example.rqchallenge.employees.service;
 
+import com.example.rqchallenge.config.BulkProperties;
+import com.example.rqchallenge.config.EmployeeCacheProperties;
+import com.example.rqchallenge.employees.cache.EmployeeSnapshot;
+import com.example.rqchallenge.employees.cache.EmployeeSnapshotCache;
+import com.example.rqchallenge.employees.model.BulkItemResult;
+import com.example.rqchallenge.employees.model.DeleteEmployeeResponse;
 import com.example.rqchallenge.employees.model.Employee;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.rqchallenge.employees.model.EmployeeAnalytics;
+import com.example.rqchallenge.employees.model.EmployeeListResponse;
+import com.example.rqchallenge.employees.model.EmployeePage;
+import com.example.rqchallenge.employees.model.EmployeeResponse;
+import com.example.rqchallenge.employees.model.Tagged;
+import com.example.rqchallenge.employees.upstream.EmployeeResponseReader;
+import com.example.rqchallenge.employees.upstream.RequestPriority;
+import com.example.rqchallenge.employees.upstream.SingleFlight;
+import com.example.rqchallenge.employees.upstream.UpstreamEndpoint;
+import com.example.rqchallenge.employees.upstream.UpstreamIsolation;
+import com.example.rqchallenge.employees.upstream.UpstreamMetrics;
+import com.example.rqchallenge.employees.upstream.UpstreamRateLimiter;
+import com.example.rqchallenge.employees.upstream.UpstreamUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RequestCallback;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
+@Profile("!reactive")
 public class EmployeeService {
-    private static final String ORIGINAL_URL = "https://dummy.restapiexample.com/api/v1";
     private final RestTemplate restTemplate;
-    private final ObjectMapper mapper;
-    private static final String STATUS = "status";
+    private final EmployeeResponseReader responseReader;
+    private final EmployeeSnapshotCache snapshotCache;
+    private final UpstreamRateLimiter rateLimiter;
+    private final UpstreamIsolation isolation;
+    private final ExecutorService requestExecutor;
+    private final ExecutorService bulkExecutor;
+    private final BulkProperties bulkProperties;
+    private final UpstreamMetrics metrics;
+    private final SingleFlight<String, EmployeeListResponse> allEmployeesFlight = new SingleFlight<>();
+    private final SingleFlight<String, ResponseEntity<EmployeeResponse>> employeeFlight = new SingleFlight<>();
     private static final String SUCCESS = "success";
+    private static final String RETRY_AFTER = "Retry-After";
+    private static final RequestCallback ACCEPT_JSON = request -> request.getHeaders().setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+    private static final BooleanSupplier NOT_CANCELLED = () -> false;
+    private static final long CANCEL_CHECK_MILLIS = 100;
 
     private static final Logger logger = LoggerFactory.getLogger(EmployeeService.class);
 
-    public EmployeeService(RestTemplate restTemplate) {
+    public EmployeeService(RestTemplate restTemplate, EmployeeCacheProperties cacheProperties, UpstreamRateLimiter rateLimiter,
+                           UpstreamIsolation isolation, @Qualifier("upstreamExecutor") ExecutorService upstreamExecutor,
+                           @Qualifier("requestExecutor") ExecutorService requestExecutor,
+                           @Qualifier("bulkExecutor") ExecutorService bulkExecutor, BulkProperties bulkProperties,
+                           MeterRegistry meterRegistry) {
         this.restTemplate = restTemplate;
-        this.mapper = new ObjectMapper();
+        this.responseReader = new EmployeeResponseReader();
+        this.rateLimiter = rateLimiter;
+        this.isolation = isolation;
+        this.requestExecutor = requestExecutor;
+        this.bulkExecutor = bulkExecutor;
+        this.bulkProperties = bulkProperties;
+        this.metrics = new UpstreamMetrics(meterRegistry);
+        this.snapshotCache = new EmployeeSnapshotCache(
+                () -> fetchAllEmployees(RequestPriority.INTERACTIVE),
+                () -> fetchAllEmployees(RequestPriority.BACKGROUND),
+                cacheProperties, Clock.systemUTC(), upstreamExecutor, rateLimiter);
+        snapshotCache.bindTo(meterRegistry);
+    }
+
+    // Serves reads from the last saved snapshot, if there is one, while the upstream is asked in the background
+    @PostConstruct
+    public void warmStart() {
+        snapshotCache.restore();
+    }
+
+    @PreDestroy
+    public void close() {
+        snapshotCache.close();
     }
 
     public List<Employee> getAllEmployees() {
-        String employeeUrl = ORIGINAL_URL + "/employees";
+        //Served from the in-memory snapshot, the upstream is only hit when the snapshot is missing or expired
+        return snapshotCache.get()
+                .map(EmployeeSnapshot::getEmployees)
+                .orElse(Collections.emptyList());
+    }
 
-        try {
-            ResponseEntity<Map<String, Object>> response = restTemplate.exchange(employeeUrl, HttpMethod.GET, null, new ParameterizedTypeReference<>() {});
+    // Validator of the snapshot the next read would use, empty when that read would have to go to the upstream first
+    public Optional<String> getEmployeesETag() {
+        return snapshotCache.peekServable().map(EmployeeSnapshot::getETag);
+    }
 
-            Map<String, Object> responseMap = response.getBody();
+    public EmployeePage getEmployeesPage(int limit, String after) {
+        return snapshotCache.get()
+                .map(snapshot -> snapshot.page(limit, after))
+                .orElseGet(() -> new EmployeePage(Collections.emptyList(), null));
+    }
 
-            if (responseMap != null && SUCCESS.equalsIgnoreCase((String) responseMap.get(STATUS))) {
-                List<Map<String, Object>> data = (List<Map<String, Object>>) responseMap.get("data");
-                return data.stream()
-                        .map(map -> mapper.convertValue(map, Employee.class))
-                        .collect(Collectors.toList());
+    // Returns null rather than an empty list on failure so the cache keeps serving the last good snapshot
+    private List<Employee> fetchAllEmployees(RequestPriority priority) {
+        String employeeUrl = "/employees";
+
+        try {
+            //Streams the body straight into Employee objects rather than building a Map per employee first.
+            //Concurrent loads of the same priority (a sync reload racing another) share one upstream call.
+            EmployeeListResponse response = allEmployeesFlight.execute(flightKey(priority, employeeUrl), () -> callUpstream(UpstreamEndpoint.EMPLOYEES, priority,
+                    () -> restTemplate.execute(employeeUrl, HttpMethod.GET, ACCEPT_JSON,
+                            clientResponse -> metrics.readBody(UpstreamEndpoint.EMPLOYEES.uri(), clientResponse.getBody(), responseReader::readEmployeeList))));
+
+            if (response != null && SUCCESS.equalsIgnoreCase(response.getStatus())) {
+                return response.getData();
             }
         } catch (HttpClientErrorException.TooManyRequests e) {
-            String retryAfter = Objects.requireNonNull(e.getResponseHeaders()).getFirst("Retry-After");
+            String retryAfter = Objects.requireNonNull(e.getResponseHeaders()).getFirst(RETRY_AFTER);
             logger.warn("Rate limit exceeded. Retry after: {}", retryAfter);
+        } catch (UpstreamUnavailableException e) {
+            logger.warn("{}, keeping the last snapshot", e.getMessage());
         }
         catch (Exception e) {
             logger.error("Failed to fetch employees", e);
         }
-        return Collections.emptyList();
+        return null;
     }
 
     public Employee getEmployeeByID(String id) {
-        String employeeUrl = ORIGINAL_URL + "/employee/" + id;
+        return getEmployeeByID(id, RequestPriority.INTERACTIVE);
+    }
 
+    private Employee getEmployeeByID(String id, RequestPriority priority) {
         try {
-            ResponseEntity<Map<String, Object>> response = restTemplate.exchange(employeeUrl, HttpMethod.GET, null, new ParameterizedTypeReference<>() {});
-
-            Map<String, Object> responseMap = response.getBody();
-            if (responseMap != null && SUCCESS.equalsIgnoreCase((String) responseMap.get(STATUS))) {
-                Map<String, Object> dataMap = (Map<String, Object>) responseMap.get("data");
-                return mapper.convertValue(dataMap, Employee.class);
-            }
+            return fetchEmployee(id, priority);
         } catch (HttpClientErrorException.TooManyRequests e) {
-            String retryAfter = Objects.requireNonNull(e.getResponseHeaders()).getFirst("Retry-After");
+            String retryAfter = Objects.requireNonNull(e.getResponseHeaders()).getFirst(RETRY_AFTER);
             logger.warn("Rate limit exceeded. Retry after: {}", retryAfter);
         } catch (HttpClientErrorException.NotFound e) {
             logger.warn("Employee with id {} not found", id);
+        } catch (UpstreamUnavailableException e) {
+            logger.warn("{}, answering employee {} from the last snapshot", e.getMessage(), id);
+            return lastKnownEmployee(id);
         } catch (Exception e) {
-            logger.error("Failed to fetch employee with id {}", id, e);
+            logger.error("Failed to fetch employee with id {}, answering from the last snapshot", id, e);
+            return lastKnownEmployee(id);
         }
         return null;
     }
 
-    public List<Employee> getEmployeesByNameSearch(String name) {
-        List<Employee> allEmployees = getAllEmployees();
+    // Null when the upstream answers without an employee, upstream errors are left to the caller
+    private Employee fetchEmployee(String id, RequestPriority priority) {
+        String employeeUrl = "/employee/" + id;
 
-        //We already have a method to getAllEmployees, so we just implement some logic on this call using Streams API
+        //Concurrent lookups of the same id and priority share one upstream call
+        ResponseEntity<EmployeeResponse> response = employeeFlight.execute(flightKey(priority, id), () -> callUpstream(UpstreamEndpoint.EMPLOYEE, priority,
+                () -> restTemplate.exchange(employeeUrl, HttpMethod.GET, null, EmployeeResponse.class)));
 
-        return allEmployees.stream()
-                .filter(employee -> employee.getEmployeeName().toLowerCase().contains(name.toLowerCase()))
-                .collect(Collectors.toList());
+        EmployeeResponse body = response.getBody();
+        if (body != null && SUCCESS.equalsIgnoreCase(body.getStatus())) {
+            return body.getData();
+        }
+        return null;
     }
 
-    public int getHighestSalaryOfEmployees() {
-        List<Employee> allEmployees = getAllEmployees();
+    // Same fallbacks as getEmployeeByID, but reports why there is no employee rather than answering null
+    private BulkItemResult lookupEmployee(int index, String id) {
+        try {
+            Employee employee = fetchEmployee(id, RequestPriority.BULK);
+            if (employee != null) {
+                return new BulkItemResult(index, id, BulkItemResult.SUCCESS, null, employee);
+            }
+        } catch (HttpClientErrorException.TooManyRequests e) {
+            return new BulkItemResult(index, id, BulkItemResult.RATE_LIMITED, "Rate limit exceeded", null);
+        } catch (HttpClientErrorException.NotFound e) {
+            // Reported below
+        } catch (UpstreamUnavailableException e) {
+            return lastKnownOrFailed(index, id, e.getMessage());
+        } catch (Exception e) {
+            logger.error("Failed to fetch employee with id {}, answering from the last snapshot", id, e);
+            return lastKnownOrFailed(index, id, "Failed to fetch employee");
+        }
+        return new BulkItemResult(index, id, BulkItemResult.NOT_FOUND, "Employee not found", null);
+    }
 
-        //We already have a method to getAllEmployees, so we just implement some logic on this call using Streams API
+    private BulkItemResult lastKnownOrFailed(int index, String id, String message) {
+        Employee employee = lastKnownEmployee(id);
+        if (employee != null) {
+            return new BulkItemResult(index, id, BulkItemResult.SUCCESS, null, employee);
+        }
+        return new BulkItemResult(index, id, BulkItemResult.FAILED, message, null);
+    }
 
-        return allEmployees.stream()
-                .mapToInt(employee -> Integer.parseInt(employee.getSalary()))
-                .max()
-                .orElse(0);
+    // A caller only joins a flight of its own priority, one queued for a longer rate limit budget could outlast its own
+    private static String flightKey(RequestPriority priority, String key) {
+        return priority + " " + key;
     }
 
-    public List<String> getTop10HighestEarningEmployeeNames() {
-        List<Employee> allEmployees = getAllEmployees();
+    private Employee lastKnownEmployee(String id) {
+        return snapshotCache.peek()
+                .flatMap(snapshot -> snapshot.find(id))
+                .orElse(null);
+    }
 
-        //We already have a method to getAllEmployees, so we just implement some logic on this call using Streams API
+    public List<Employee> getEmployeesByNameSearch(String name) {
+        return getEmployeesByNameSearch(name, Integer.MAX_VALUE);
+    }
 
-        return allEmployees.stream()
-                .sorted(Comparator.comparingInt((Employee e) -> Integer.parseInt(e.getSalary())).reversed())
-                .limit(10)
-                .map(Employee::getEmployeeName)
-                .collect(Collectors.toList());
+    public List<Employee> getEmployeesByNameSearch(String name, int limit) {
+        //The name index is built once per snapshot, results come back best match first
+        return snapshotCache.get()
+                .map(snapshot -> snapshot.search(name, limit))
+                .orElse(Collections.emptyList());
     }
 
-    public Employee createEmployee(Map<String, Object> employeeInput) {
-        String employeeUrl = ORIGINAL_URL + "/create";
+    public List<Employee> getEmployeesByNamePrefix(String prefix, int limit) {
+        return snapshotCache.get()
+                .map(snapshot -> snapshot.autocomplete(prefix, limit))
+                .orElse(Collections.emptyList());
+    }
 
-        try {
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_JSON);
+    public int getHighestSalaryOfEmployees() {
+        return snapshotCache.get()
+                .map(snapshot -> snapshot.highestSalary())
+                .orElse(0);
+    }
 
-            HttpEntity<Map<String, Object>> requestEntity = new HttpEntity<>(employeeInput, headers);
+    public List<String> getTop10HighestEarningEmployeeNames() {
+        return getTopHighestEarningEmployeeNames(10);
+    }
 
-            ResponseEntity<Map<String, Object>> response = restTemplate.exchange(employeeUrl, HttpMethod.POST, requestEntity, new ParameterizedTypeReference<>() {});
+    public List<String> getTopHighestEarningEmployeeNames(int topN) {
+        //The salary index keeps rows ordered by salary, so the top N is just its first N entries
+        return snapshotCache.get()
+                .map(snapshot -> snapshot.topEarnerNames(topN))
+                .orElse(Collections.emptyList());
+    }
 
-            Map<String, Object> responseBody = response.getBody();
+    public EmployeeAnalytics getEmployeeAnalytics(int[] salaryEdges, int[] ageEdges) {
+        return snapshotCache.get()
+                .map(snapshot -> snapshot.analytics(salaryEdges, ageEdges))
+                .orElseGet(EmployeeAnalytics::new);
+    }
 
-            if (response.getStatusCode().is2xxSuccessful() && responseBody != null && SUCCESS.equalsIgnoreCase((String) responseBody.get(STATUS))) {
-                Map<String, Object> employeeData = (Map<String, Object>) responseBody.get("data");
-                return mapper.convertValue(employeeData, Employee.class);
-            }
+    public Employee createEmployee(Map<String, Object> employeeInput) {
+        return createEmployee(employeeInput, RequestPriority.INTERACTIVE);
+    }
+
+    private Employee createEmployee(Map<String, Object> employeeInput, RequestPriority priority) {
+        try {
+            return postEmployee(employeeInput, priority);
         } catch (HttpClientErrorException.TooManyRequests e) {
-            String length = Objects.requireNonNull(e.getResponseHeaders()).getFirst("Retry-After");
+            String length = Objects.requireNonNull(e.getResponseHeaders()).getFirst(RETRY_AFTER);
             logger.warn("Rate limit exceeded. Retry after: {}", length);
+        } catch (UpstreamUnavailableException e) {
+            logger.warn("Failed to create employee: {}", e.getMessage());
         } catch (RestClientException e) {
             logger.error("Failed to create employee", e);
         }
@@ -143,29 +291,337 @@ public class EmployeeService {
         return null;
     }
 
+    // Null when the upstream answers without an employee, upstream errors are left to the caller
+    private Employee postEmployee(Map<String, Object> employeeInput, RequestPriority priority) {
+        String employeeUrl = "/create";
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        HttpEntity<Map<String, Object>> requestEntity = new HttpEntity<>(employeeInput, headers);
+
+        ResponseEntity<EmployeeResponse> response = callUpstream(UpstreamEndpoint.CREATE, priority,
+                () -> restTemplate.exchange(employeeUrl, HttpMethod.POST, requestEntity, EmployeeResponse.class));
+
+        EmployeeResponse responseBody = response.getBody();
+
+        if (response.getStatusCode().is2xxSuccessful() && responseBody != null && SUCCESS.equalsIgnoreCase(responseBody.getStatus())) {
+            Employee employee = responseBody.getData();
+            if (employee != null) {
+                snapshotCache.applyCreate(employee);
+            }
+            return employee;
+        }
+        return null;
+    }
+
     public String deleteEmployeeById(String id) {
-        String employeeUrl = ORIGINAL_URL + "/delete/" + id;
+        return deleteEmployeeById(id, RequestPriority.INTERACTIVE);
+    }
+
+    private String deleteEmployeeById(String id, RequestPriority priority) {
+        String employeeUrl = "/delete/" + id;
 
         try {
-            ResponseEntity<Map<String, Object>> response = restTemplate.exchange(employeeUrl, HttpMethod.DELETE, null, new ParameterizedTypeReference<>() {});
-            Map<String, Object> responseBody = response.getBody();
+            ResponseEntity<DeleteEmployeeResponse> response = callUpstream(UpstreamEndpoint.DELETE, priority,
+                    () -> restTemplate.exchange(employeeUrl, HttpMethod.DELETE, null, DeleteEmployeeResponse.class));
+            DeleteEmployeeResponse responseBody = response.getBody();
 
-            if (response.getStatusCode().is2xxSuccessful() && responseBody != null && SUCCESS.equalsIgnoreCase((String) responseBody.get(STATUS))) {
-                return (String) responseBody.get("message");
+            if (response.getStatusCode().is2xxSuccessful() && responseBody != null && SUCCESS.equalsIgnoreCase(responseBody.getStatus())) {
+                snapshotCache.applyDelete(id);
+                return responseBody.getMessage();
             }
 
             return "Failed to delete";
         } catch (HttpClientErrorException.TooManyRequests e) {
-            String length = Objects.requireNonNull(e.getResponseHeaders()).getFirst("Retry-After");
+            String length = Objects.requireNonNull(e.getResponseHeaders()).getFirst(RETRY_AFTER);
             logger.warn("Rate limit has been hit, retry after: {}", length);
             return "Rate limit exdeeded.";
         } catch (HttpClientErrorException.NotFound e) {
             logger.warn("Employee with ID {} hasn't been found or doesn't exist.", id);
             return "Employee not found";
+        } catch (UpstreamUnavailableException e) {
+            logger.warn("Failed to delete employee with ID {}: {}", id, e.getMessage());
+            return "Failed to delete";
         } catch (RestClientException e) {
             logger.error("Failed to delete employee with ID {}", id, e);
             return "Failed to delete";
         }
     }
 
+    public List<BulkItemResult> createEmployees(List<Map<String, Object>> employeeInputs) {
+        return createEmployees(employeeInputs, NOT_CANCELLED);
+    }
+
+    private List<BulkItemResult> createEmployees(List<Map<String, Object>> employeeInputs, BooleanSupplier cancelled) {
+        return fanOut(employeeInputs, cancelled, (index, input) -> {
+            try {
+                Employee employee = postEmployee(input, RequestPriority.BULK);
+                if (employee != null) {
+                    return new BulkItemResult(index, employee.getId(), BulkItemResult.SUCCESS, null, employee);
+                }
+            } catch (HttpClientErrorException.TooManyRequests e) {
+                return new BulkItemResult(index, null, BulkItemResult.RATE_LIMITED, "Rate limit exceeded", null);
+            } catch (UpstreamUnavailableException e) {
+                return new BulkItemResult(index, null, BulkItemResult.FAILED, e.getMessage(), null);
+            } catch (RestClientException e) {
+                logger.error("Failed to create employee", e);
+            }
+            return new BulkItemResult(index, null, BulkItemResult.FAILED, "Failed to create", null);
+        });
+    }
+
+    public List<BulkItemResult> deleteEmployeesById(List<String> ids) {
+        return deleteEmployeesById(ids, NOT_CANCELLED);
+    }
+
+    private List<BulkItemResult> deleteEmployeesById(List<String> ids, BooleanSupplier cancelled) {
+        return fanOut(ids, cancelled, (index, id) -> BulkItemResult.forDelete(index, id, deleteEmployeeById(id, RequestPriority.BULK)));
+    }
+
+    // One result per distinct id, in request order, indexed by where the id first appears. Ids in the current snapshot
+    // are answered from memory. With no usable snapshot a lookup of several ids loads one, a single upstream call rather
+    // than one per id, and ids it does not have are not found. Otherwise the missing ids cost an upstream call each,
+    // made with the bulk parallelism and shared with any concurrent bulk lookup of the same id.
+    public List<BulkItemResult> getEmployeesByIds(List<String> ids) {
+        return getEmployeesByIds(ids, NOT_CANCELLED);
+    }
+
+    private List<BulkItemResult> getEmployeesByIds(List<String> ids, BooleanSupplier cancelled) {
+        Map<String, Integer> firstIndex = new LinkedHashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            if (ids.get(i) != null) {
+                firstIndex.putIfAbsent(ids.get(i), i);
+            }
+        }
+
+        Optional<EmployeeSnapshot> snapshot = snapshotCache.getIfPresent();
+        boolean loadedNow = false;
+        if (snapshot.isEmpty() && firstIndex.size() > 1) {
+            // A failed load hands back the previous, unusable snapshot or nothing, the ids are then fetched one by one
+            EmployeeSnapshot previous = snapshotCache.peek().orElse(null);
+            snapshot = snapshotCache.get().filter(loaded -> loaded != previous);
+            loadedNow = snapshot.isPresent();
+        }
+
+        Map<String, BulkItemResult> results = new LinkedHashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : firstIndex.entrySet()) {
+            String id = entry.getKey();
+            Employee employee = snapshot.flatMap(current -> current.find(id)).orElse(null);
+            if (employee != null) {
+                results.put(id, new BulkItemResult(entry.getValue(), id, BulkItemResult.SUCCESS, null, employee));
+            } else if (loadedNow) {
+                results.put(id, new BulkItemResult(entry.getValue(), id, BulkItemResult.NOT_FOUND, "Employee not found", null));
+            } else {
+                results.put(id, null);
+                missing.add(id);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            List<BulkItemResult> fetched = fanOut(missing, cancelled, (index, id) -> lookupEmployee(firstIndex.get(id), id));
+            for (int i = 0; i < fetched.size(); i++) {
+                // fanOut numbers the items it fills in itself by their place in missing
+                BulkItemResult result = fetched.get(i);
+                String id = missing.get(i);
+                result.setId(id);
+                result.setIndex(firstIndex.get(id));
+                results.put(id, result);
+            }
+        }
+        return new ArrayList<>(results.values());
+    }
+
+    // Async counterparts of the calls above for endpoints that should not hold their request thread while the upstream
+    // works. Reads the current snapshot can answer complete on the calling thread, anything that has to go to the
+    // upstream runs on the request executor, and a saturated executor fails the future with RejectedExecutionException.
+
+    public CompletableFuture<List<Employee>> getAllEmployeesAsync() {
+        return readSnapshot(this::getAllEmployees);
+    }
+
+    public CompletableFuture<EmployeePage> getEmployeesPageAsync(int limit, String after) {
+        return readSnapshot(() -> getEmployeesPage(limit, after));
+    }
+
+    public CompletableFuture<List<Employee>> getEmployeesByNameSearchAsync(String name, int limit) {
+        return readSnapshot(() -> getEmployeesByNameSearch(name, limit));
+    }
+
+    public CompletableFuture<List<Employee>> getEmployeesByNamePrefixAsync(String prefix, int limit) {
+        return readSnapshot(() -> getEmployeesByNamePrefix(prefix, limit));
+    }
+
+    // The tagged reads answer conditional GETs, their ETag is that of the snapshot the value was read from
+
+    public CompletableFuture<Tagged<List<Employee>>> getAllEmployeesTaggedAsync() {
+        return readSnapshot(() -> readTagged(EmployeeSnapshot::getEmployees, Collections.emptyList()));
+    }
+
+    public CompletableFuture<Tagged<Integer>> getHighestSalaryOfEmployeesTaggedAsync() {
+        return readSnapshot(() -> readTagged(EmployeeSnapshot::highestSalary, 0));
+    }
+
+    public CompletableFuture<Tagged<List<String>>> getTopHighestEarningEmployeeNamesTaggedAsync(int topN) {
+        return readSnapshot(() -> readTagged(snapshot -> snapshot.topEarnerNames(topN), Collections.emptyList()));
+    }
+
+    public CompletableFuture<Tagged<EmployeeAnalytics>> getEmployeeAnalyticsTaggedAsync(int[] salaryEdges, int[] ageEdges) {
+        return readSnapshot(() -> readTagged(snapshot -> snapshot.analytics(salaryEdges, ageEdges), new EmployeeAnalytics()));
+    }
+
+    private <T> Tagged<T> readTagged(Function<EmployeeSnapshot, T> read, T fallback) {
+        return snapshotCache.get()
+                .map(snapshot -> new Tagged<>(snapshot.getETag(), read.apply(snapshot)))
+                .orElseGet(() -> new Tagged<>(null, fallback));
+    }
+
+    public CompletableFuture<Employee> getEmployeeByIDAsync(String id) {
+        return onRequestExecutor(() -> getEmployeeByID(id));
+    }
+
+    public CompletableFuture<Employee> createEmployeeAsync(Map<String, Object> employeeInput) {
+        return onRequestExecutor(() -> createEmployee(employeeInput));
+    }
+
+    public CompletableFuture<String> deleteEmployeeByIdAsync(String id) {
+        return onRequestExecutor(() -> deleteEmployeeById(id));
+    }
+
+    // The bulk calls stop sending items once their future is cancelled, see fanOut
+    public CompletableFuture<List<BulkItemResult>> createEmployeesAsync(List<Map<String, Object>> employeeInputs) {
+        return onRequestExecutorCancellable(cancelled -> createEmployees(employeeInputs, cancelled));
+    }
+
+    public CompletableFuture<List<BulkItemResult>> deleteEmployeesByIdAsync(List<String> ids) {
+        return onRequestExecutorCancellable(cancelled -> deleteEmployeesById(ids, cancelled));
+    }
+
+    public CompletableFuture<List<BulkItemResult>> getEmployeesByIdsAsync(List<String> ids) {
+        return onRequestExecutorCancellable(cancelled -> getEmployeesByIds(ids, cancelled));
+    }
+
+    // Hopping threads for a read served from memory would only add latency
+    private <T> CompletableFuture<T> readSnapshot(Supplier<T> read) {
+        if (snapshotCache.peekServable().isPresent()) {
+            return CompletableFuture.completedFuture(read.get());
+        }
+        return onRequestExecutor(read);
+    }
+
+    private <T> CompletableFuture<T> onRequestExecutor(Supplier<T> work) {
+        try {
+            return CompletableFuture.supplyAsync(work, requestExecutor);
+        } catch (RejectedExecutionException e) {
+            logger.warn("Request executor saturated, turning the request away");
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    // Unlike supplyAsync, cancelling the returned future is seen by the work, which gets it as its cancelled flag
+    private <T> CompletableFuture<T> onRequestExecutorCancellable(Function<BooleanSupplier, T> work) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            requestExecutor.execute(() -> {
+                try {
+                    result.complete(work.apply(result::isCancelled));
+                } catch (RuntimeException | Error e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            logger.warn("Request executor saturated, turning the request away");
+            return CompletableFuture.failedFuture(e);
+        }
+        return result;
+    }
+
+    // Runs one upstream call per item on the bulk executor, never more than the configured parallelism at once.
+    // The rate limiter still paces the calls, so a large batch queues for budget rather than failing with 429s.
+    // Once cancelled no further item is sent, the ones already running finish and the rest are reported as FAILED
+    // without waiting for a permit. An item the saturated bulk executor turns away is FAILED too.
+    private <T> List<BulkItemResult> fanOut(List<T> items, BooleanSupplier cancelled, BiFunction<Integer, T, BulkItemResult> operation) {
+        Semaphore permits = new Semaphore(Math.max(1, bulkProperties.getParallelism()));
+        List<CompletableFuture<BulkItemResult>> results = new ArrayList<>(items.size());
+
+        for (int i = 0; i < items.size(); i++) {
+            int index = i;
+            T item = items.get(i);
+            if (cancelled.getAsBoolean() || !acquire(permits, cancelled)) {
+                results.add(CompletableFuture.completedFuture(new BulkItemResult(index, null, BulkItemResult.FAILED, "Cancelled", null)));
+                continue;
+            }
+            try {
+                results.add(CompletableFuture.supplyAsync(() -> cancelled.getAsBoolean()
+                                ? new BulkItemResult(index, null, BulkItemResult.FAILED, "Cancelled", null)
+                                : operation.apply(index, item), bulkExecutor)
+                        .whenComplete((result, error) -> permits.release())
+                        .exceptionally(error -> {
+                            logger.error("Bulk item {} failed", index, error);
+                            return new BulkItemResult(index, null, BulkItemResult.FAILED, "Unexpected error", null);
+                        }));
+            } catch (RejectedExecutionException e) {
+                permits.release();
+                logger.warn("Bulk executor saturated, failing bulk item {}", index);
+                results.add(CompletableFuture.completedFuture(new BulkItemResult(index, null, BulkItemResult.FAILED, "Too many bulk items in flight", null)));
+            }
+        }
+
+        return results.stream()
+                .map(CompletableFuture::join)
+                .collect(Collectors.toList());
+    }
+
+    // Waits for a permit, checking now and then whether the bulk request has been cancelled. False once it has.
+    private static boolean acquire(Semaphore permits, BooleanSupplier cancelled) {
+        try {
+            while (!permits.tryAcquire(CANCEL_CHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (cancelled.getAsBoolean()) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // Fails fast with UpstreamUnavailableException while the endpoint's breaker is open or its bulkhead stays full.
+    // Otherwise waits for upstream budget and, after a 429, retries once Retry-After has passed if the caller's deadline allows it.
+    // When it gives up on the budget it throws TooManyRequests, so callers keep their existing rate limit handling.
+    // Each attempt takes its bulkhead slot only once it has budget and gives it back before any Retry-After wait,
+    // so callers queued on the rate limiter do not hold slots or half-open trial calls.
+    private <T> T callUpstream(UpstreamEndpoint endpoint, RequestPriority priority, Supplier<T> call) {
+        long deadline = rateLimiter.deadline(priority);
+        while (true) {
+            if (!rateLimiter.acquire(priority, deadline)) {
+                HttpHeaders headers = new HttpHeaders();
+                headers.set(RETRY_AFTER, String.valueOf(Math.max(1, rateLimiter.getBlockedFor().toSeconds())));
+                throw HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "Upstream request budget exhausted", headers, null, null);
+            }
+            UpstreamIsolation.Permit permit = isolation.acquire(endpoint, deadline);
+            long start = System.nanoTime();
+            try {
+                T result = metrics.record(endpoint.uri(), call);
+                permit.complete(null, System.nanoTime() - start);
+                rateLimiter.onSuccess();
+                return result;
+            } catch (HttpClientErrorException.TooManyRequests e) {
+                String header = e.getResponseHeaders() != null ? e.getResponseHeaders().getFirst(RETRY_AFTER) : null;
+                Duration retryAfter = rateLimiter.onRateLimited(header);
+                if (System.nanoTime() + retryAfter.toNanos() - deadline > 0) {
+                    throw e;
+                }
+                logger.info("Upstream rate limited the call, retrying after {}", retryAfter);
+            } catch (RuntimeException e) {
+                permit.complete(e, System.nanoTime() - start);
+                throw e;
+            } finally {
+                permit.release();
+            }
+        }
+    }
+
 }
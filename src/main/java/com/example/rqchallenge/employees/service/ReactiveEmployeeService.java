@@ -0,0 +1,439 @@
+package com.example.rqchallenge.employees.service;
+
+import com.example.rqchallenge.config.BulkProperties;
+import com.example.rqchallenge.config.EmployeeCacheProperties;
+import com.example.rqchallenge.employees.cache.EmployeeSnapshot;
+import com.example.rqchallenge.employees.cache.EmployeeSnapshotCache;
+import com.example.rqchallenge.employees.model.BulkItemResult;
+import com.example.rqchallenge.employees.model.DeleteEmployeeResponse;
+import com.example.rqchallenge.employees.model.Employee;
+import com.example.rqchallenge.employees.model.EmployeeListResponse;
+import com.example.rqchallenge.employees.model.EmployeeAnalytics;
+import com.example.rqchallenge.employees.model.EmployeePage;
+import com.example.rqchallenge.employees.model.EmployeeResponse;
+import com.example.rqchallenge.employees.model.Tagged;
+import com.example.rqchallenge.employees.upstream.RequestPriority;
+import com.example.rqchallenge.employees.upstream.UpstreamEndpoint;
+import com.example.rqchallenge.employees.upstream.UpstreamIsolation;
+import com.example.rqchallenge.employees.upstream.UpstreamMetrics;
+import com.example.rqchallenge.employees.upstream.UpstreamRateLimiter;
+import com.example.rqchallenge.employees.upstream.UpstreamUnavailableException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking counterpart of {@link EmployeeService} for the reactive profile. It shares the snapshot cache,
+ * indexes and rate limiter, but never parks a thread: budget waits and Retry-After backoff are scheduled delays.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveEmployeeService {
+    private static final String SUCCESS = "success";
+    private static final String RETRY_AFTER = "Retry-After";
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactiveEmployeeService.class);
+
+    private final WebClient webClient;
+    private final UpstreamRateLimiter rateLimiter;
+    private final UpstreamIsolation isolation;
+    private final UpstreamMetrics metrics;
+    private final EmployeeSnapshotCache snapshotCache;
+    private final BulkProperties bulkProperties;
+    private final AtomicReference<Mono<EmployeeSnapshot>> snapshotLoad = new AtomicReference<>();
+
+    public ReactiveEmployeeService(WebClient employeeWebClient, EmployeeCacheProperties cacheProperties, UpstreamRateLimiter rateLimiter,
+                                   UpstreamIsolation isolation, BulkProperties bulkProperties, MeterRegistry meterRegistry) {
+        this.webClient = employeeWebClient;
+        this.bulkProperties = bulkProperties;
+        this.rateLimiter = rateLimiter;
+        this.isolation = isolation;
+        this.metrics = new UpstreamMetrics(meterRegistry);
+        // Background refreshes run on the cache's own thread, so blocking there does not hold up the event loop
+        this.snapshotCache = new EmployeeSnapshotCache(
+                () -> fetchAllEmployees(RequestPriority.INTERACTIVE).block(),
+                () -> fetchAllEmployees(RequestPriority.BACKGROUND).block(),
+                cacheProperties, Clock.systemUTC(), null, rateLimiter);
+        snapshotCache.bindTo(meterRegistry);
+    }
+
+    // Serves reads from the last saved snapshot, if there is one, while the upstream is asked in the background
+    @PostConstruct
+    public void warmStart() {
+        snapshotCache.restore();
+    }
+
+    @PreDestroy
+    public void close() {
+        snapshotCache.close();
+    }
+
+    public Mono<List<Employee>> getAllEmployees() {
+        return snapshot()
+                .map(EmployeeSnapshot::getEmployees)
+                .defaultIfEmpty(Collections.emptyList());
+    }
+
+    // Never blocks, empty when the next read would have to go to the upstream first
+    public Optional<String> getEmployeesETag() {
+        return snapshotCache.peekServable().map(EmployeeSnapshot::getETag);
+    }
+
+    public Mono<EmployeePage> getEmployeesPage(int limit, String after) {
+        return snapshot()
+                .map(snapshot -> snapshot.page(limit, after))
+                .defaultIfEmpty(new EmployeePage(Collections.emptyList(), null));
+    }
+
+    public Mono<Employee> getEmployeeByID(String id) {
+        return fetchEmployee(id, RequestPriority.INTERACTIVE)
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> {
+                    logger.warn("Employee with id {} not found", id);
+                    return Mono.empty();
+                })
+                .onErrorResume(WebClientResponseException.TooManyRequests.class, e -> {
+                    logger.warn("Rate limit exceeded. Retry after: {}", e.getHeaders().getFirst(RETRY_AFTER));
+                    return Mono.empty();
+                })
+                .onErrorResume(UpstreamUnavailableException.class, e -> {
+                    logger.warn("{}, answering employee {} from the last snapshot", e.getMessage(), id);
+                    return lastKnownEmployee(id);
+                })
+                .onErrorResume(e -> {
+                    logger.error("Failed to fetch employee with id {}, answering from the last snapshot", id, e);
+                    return lastKnownEmployee(id);
+                });
+    }
+
+    // Empty when the upstream answers without an employee, upstream errors are left to the caller
+    private Mono<Employee> fetchEmployee(String id, RequestPriority priority) {
+        return callUpstream(UpstreamEndpoint.EMPLOYEE, priority, () -> webClient.get()
+                .uri("/employee/{id}", id)
+                .retrieve()
+                .bodyToMono(EmployeeResponse.class))
+                .filter(response -> SUCCESS.equalsIgnoreCase(response.getStatus()))
+                .map(EmployeeResponse::getData);
+    }
+
+    // Same fallbacks as getEmployeeByID, but reports why there is no employee rather than emitting nothing
+    private Mono<BulkItemResult> lookupEmployee(int index, String id) {
+        return fetchEmployee(id, RequestPriority.BULK)
+                .map(employee -> new BulkItemResult(index, id, BulkItemResult.SUCCESS, null, employee))
+                .switchIfEmpty(Mono.fromSupplier(() -> new BulkItemResult(index, id, BulkItemResult.NOT_FOUND, "Employee not found", null)))
+                .onErrorResume(WebClientResponseException.TooManyRequests.class,
+                        e -> Mono.just(new BulkItemResult(index, id, BulkItemResult.RATE_LIMITED, "Rate limit exceeded", null)))
+                .onErrorResume(WebClientResponseException.NotFound.class,
+                        e -> Mono.just(new BulkItemResult(index, id, BulkItemResult.NOT_FOUND, "Employee not found", null)))
+                .onErrorResume(UpstreamUnavailableException.class, e -> Mono.just(lastKnownOrFailed(index, id, e.getMessage())))
+                .onErrorResume(e -> {
+                    logger.error("Failed to fetch employee with id {}, answering from the last snapshot", id, e);
+                    return Mono.just(lastKnownOrFailed(index, id, "Failed to fetch employee"));
+                });
+    }
+
+    private BulkItemResult lastKnownOrFailed(int index, String id, String message) {
+        return snapshotCache.peek()
+                .flatMap(snapshot -> snapshot.find(id))
+                .map(employee -> new BulkItemResult(index, id, BulkItemResult.SUCCESS, null, employee))
+                .orElseGet(() -> new BulkItemResult(index, id, BulkItemResult.FAILED, message, null));
+    }
+
+    private Mono<Employee> lastKnownEmployee(String id) {
+        return Mono.justOrEmpty(snapshotCache.peek().flatMap(snapshot -> snapshot.find(id)));
+    }
+
+    public Mono<List<Employee>> getEmployeesByNameSearch(String name, int limit) {
+        return snapshot()
+                .map(snapshot -> snapshot.search(name, limit))
+                .defaultIfEmpty(Collections.emptyList());
+    }
+
+    public Mono<List<Employee>> getEmployeesByNamePrefix(String prefix, int limit) {
+        return snapshot()
+                .map(snapshot -> snapshot.autocomplete(prefix, limit))
+                .defaultIfEmpty(Collections.emptyList());
+    }
+
+    public Mono<Integer> getHighestSalaryOfEmployees() {
+        return snapshot()
+                .map(snapshot -> snapshot.highestSalary())
+                .defaultIfEmpty(0);
+    }
+
+    public Mono<List<String>> getTopHighestEarningEmployeeNames(int topN) {
+        return snapshot()
+                .map(snapshot -> snapshot.topEarnerNames(topN))
+                .defaultIfEmpty(Collections.emptyList());
+    }
+
+    public Mono<EmployeeAnalytics> getEmployeeAnalytics(int[] salaryEdges, int[] ageEdges) {
+        return snapshot()
+                .map(snapshot -> snapshot.analytics(salaryEdges, ageEdges))
+                .defaultIfEmpty(new EmployeeAnalytics());
+    }
+
+    // Same tagged reads as EmployeeService, for conditional GETs
+
+    public Mono<Tagged<List<Employee>>> getAllEmployeesTagged() {
+        return readTagged(EmployeeSnapshot::getEmployees, Collections.emptyList());
+    }
+
+    public Mono<Tagged<Integer>> getHighestSalaryOfEmployeesTagged() {
+        return readTagged(EmployeeSnapshot::highestSalary, 0);
+    }
+
+    public Mono<Tagged<List<String>>> getTopHighestEarningEmployeeNamesTagged(int topN) {
+        return readTagged(snapshot -> snapshot.topEarnerNames(topN), Collections.emptyList());
+    }
+
+    public Mono<Tagged<EmployeeAnalytics>> getEmployeeAnalyticsTagged(int[] salaryEdges, int[] ageEdges) {
+        return readTagged(snapshot -> snapshot.analytics(salaryEdges, ageEdges), new EmployeeAnalytics());
+    }
+
+    private <T> Mono<Tagged<T>> readTagged(Function<EmployeeSnapshot, T> read, T fallback) {
+        return snapshot()
+                .map(snapshot -> new Tagged<>(snapshot.getETag(), read.apply(snapshot)))
+                .defaultIfEmpty(new Tagged<>(null, fallback));
+    }
+
+    public Mono<Employee> createEmployee(Map<String, Object> employeeInput) {
+        return postEmployee(employeeInput, RequestPriority.INTERACTIVE)
+                .onErrorResume(e -> {
+                    logger.error("Failed to create employee", e);
+                    return Mono.empty();
+                });
+    }
+
+    // Empty when the upstream answers without an employee, upstream errors are left to the caller
+    private Mono<Employee> postEmployee(Map<String, Object> employeeInput, RequestPriority priority) {
+        return callUpstream(UpstreamEndpoint.CREATE, priority, () -> webClient.post()
+                .uri("/create")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(employeeInput)
+                .retrieve()
+                .bodyToMono(EmployeeResponse.class))
+                .filter(response -> SUCCESS.equalsIgnoreCase(response.getStatus()))
+                .map(EmployeeResponse::getData)
+                .doOnNext(snapshotCache::applyCreate);
+    }
+
+    public Mono<String> deleteEmployeeById(String id) {
+        return deleteEmployeeById(id, RequestPriority.INTERACTIVE);
+    }
+
+    private Mono<String> deleteEmployeeById(String id, RequestPriority priority) {
+        return callUpstream(UpstreamEndpoint.DELETE, priority, () -> webClient.delete()
+                .uri("/delete/{id}", id)
+                .retrieve()
+                .bodyToMono(DeleteEmployeeResponse.class))
+                .map(response -> {
+                    if (SUCCESS.equalsIgnoreCase(response.getStatus())) {
+                        snapshotCache.applyDelete(id);
+                        return response.getMessage();
+                    }
+                    return "Failed to delete";
+                })
+                .defaultIfEmpty("Failed to delete")
+                .onErrorResume(WebClientResponseException.TooManyRequests.class, e -> {
+                    logger.warn("Rate limit has been hit, retry after: {}", e.getHeaders().getFirst(RETRY_AFTER));
+                    return Mono.just("Rate limit exdeeded.");
+                })
+                .onErrorResume(WebClientResponseException.NotFound.class, e -> {
+                    logger.warn("Employee with ID {} hasn't been found or doesn't exist.", id);
+                    return Mono.just("Employee not found");
+                })
+                .onErrorResume(e -> {
+                    logger.error("Failed to delete employee with ID {}", id, e);
+                    return Mono.just("Failed to delete");
+                });
+    }
+
+    // Same per-item results as EmployeeService.createEmployees, a 429 the budget could not wait out is RATE_LIMITED
+    public Mono<List<BulkItemResult>> createEmployees(List<Map<String, Object>> employeeInputs) {
+        return fanOut(employeeInputs, (index, input) -> postEmployee(input, RequestPriority.BULK)
+                .map(employee -> new BulkItemResult(index, employee.getId(), BulkItemResult.SUCCESS, null, employee))
+                .defaultIfEmpty(new BulkItemResult(index, null, BulkItemResult.FAILED, "Failed to create", null))
+                .onErrorResume(WebClientResponseException.TooManyRequests.class,
+                        e -> Mono.just(new BulkItemResult(index, null, BulkItemResult.RATE_LIMITED, "Rate limit exceeded", null)))
+                .onErrorResume(UpstreamUnavailableException.class,
+                        e -> Mono.just(new BulkItemResult(index, null, BulkItemResult.FAILED, e.getMessage(), null)))
+                .onErrorResume(e -> {
+                    logger.error("Failed to create employee", e);
+                    return Mono.just(new BulkItemResult(index, null, BulkItemResult.FAILED, "Failed to create", null));
+                }));
+    }
+
+    // Same results as EmployeeService.getEmployeesByIds: one per distinct id, indexed by where it first appears. Ids in the
+    // current snapshot are answered from memory, and with no usable snapshot a lookup of several ids loads one rather
+    // than calling per id. Otherwise the missing ids are fetched with the bulk parallelism.
+    public Mono<List<BulkItemResult>> getEmployeesByIds(List<String> ids) {
+        return Mono.defer(() -> {
+            Map<String, Integer> firstIndex = new LinkedHashMap<>();
+            for (int i = 0; i < ids.size(); i++) {
+                if (ids.get(i) != null) {
+                    firstIndex.putIfAbsent(ids.get(i), i);
+                }
+            }
+
+            Optional<EmployeeSnapshot> current = snapshotCache.getIfPresent();
+            if (current.isPresent() || firstIndex.size() <= 1) {
+                return lookup(firstIndex, current.orElse(null), false);
+            }
+            // A failed load hands back the previous, unusable snapshot or nothing, the ids are then fetched one by one
+            EmployeeSnapshot previous = snapshotCache.peek().orElse(null);
+            return snapshot()
+                    .filter(loaded -> loaded != previous)
+                    .flatMap(loaded -> lookup(firstIndex, loaded, true))
+                    .switchIfEmpty(Mono.defer(() -> lookup(firstIndex, null, false)));
+        });
+    }
+
+    // Ids a freshly loaded snapshot does not have are not found, any other miss goes to the upstream
+    private Mono<List<BulkItemResult>> lookup(Map<String, Integer> firstIndex, EmployeeSnapshot snapshot, boolean loadedNow) {
+        return Flux.fromIterable(firstIndex.entrySet())
+                .flatMapSequential(entry -> {
+                    int index = entry.getValue();
+                    String id = entry.getKey();
+                    Employee employee = snapshot != null ? snapshot.find(id).orElse(null) : null;
+                    if (employee != null) {
+                        return Mono.just(new BulkItemResult(index, id, BulkItemResult.SUCCESS, null, employee));
+                    } else if (loadedNow) {
+                        return Mono.just(new BulkItemResult(index, id, BulkItemResult.NOT_FOUND, "Employee not found", null));
+                    }
+                    return lookupEmployee(index, id);
+                }, Math.max(1, bulkProperties.getParallelism()))
+                .collectList();
+    }
+
+    public Mono<List<BulkItemResult>> deleteEmployeesById(List<String> ids) {
+        return fanOut(ids, (index, id) -> deleteEmployeeById(id, RequestPriority.BULK)
+                .map(message -> BulkItemResult.forDelete(index, id, message)));
+    }
+
+    // At most the bulk parallelism in flight, results in request order. Cancelling the subscription, as a timed out or
+    // dropped request does, stops the items not yet sent.
+    private <T> Mono<List<BulkItemResult>> fanOut(List<T> items, BiFunction<Integer, T, Mono<BulkItemResult>> operation) {
+        return Flux.range(0, items.size())
+                .flatMapSequential(index -> operation.apply(index, items.get(index)), Math.max(1, bulkProperties.getParallelism()))
+                .collectList();
+    }
+
+    // Serves the cached snapshot when it is usable, otherwise loads one; concurrent loads share a single upstream call
+    private Mono<EmployeeSnapshot> snapshot() {
+        return Mono.defer(() -> {
+            EmployeeSnapshot usable = snapshotCache.getIfPresent().orElse(null);
+            if (usable != null) {
+                return Mono.just(usable);
+            }
+
+            // Building the table and its indexes takes long enough on a large list to stall every connection on an event loop
+            Mono<EmployeeSnapshot> load = fetchAllEmployees(RequestPriority.INTERACTIVE)
+                    .publishOn(Schedulers.boundedElastic())
+                    .map(snapshotCache::update)
+                    .switchIfEmpty(Mono.defer(() -> Mono.justOrEmpty(snapshotCache.peek())))
+                    .cache();
+            Mono<EmployeeSnapshot> inFlight = snapshotLoad.compareAndExchange(null, load);
+            if (inFlight != null) {
+                return inFlight;
+            }
+            return load.doFinally(signal -> snapshotLoad.compareAndSet(load, null));
+        });
+    }
+
+    // Emits nothing when the upstream could not be read, so the cache keeps its last good snapshot
+    private Mono<List<Employee>> fetchAllEmployees(RequestPriority priority) {
+        return callUpstream(UpstreamEndpoint.EMPLOYEES, priority, () -> webClient.get()
+                .uri("/employees")
+                .accept(MediaType.APPLICATION_JSON)
+                .retrieve()
+                .bodyToMono(EmployeeListResponse.class))
+                .filter(response -> SUCCESS.equalsIgnoreCase(response.getStatus()))
+                .map(EmployeeListResponse::getData)
+                .onErrorResume(WebClientResponseException.TooManyRequests.class, e -> {
+                    logger.warn("Rate limit exceeded. Retry after: {}", e.getHeaders().getFirst(RETRY_AFTER));
+                    return Mono.empty();
+                })
+                .onErrorResume(e -> {
+                    logger.error("Failed to fetch employees", e);
+                    return Mono.empty();
+                });
+    }
+
+    // The bulkhead never waits here, a full one fails the call straight away like an open breaker does.
+    // Each attempt takes its own slot once it has budget, none is held through a rate limit delay.
+    private <T> Mono<T> callUpstream(UpstreamEndpoint endpoint, RequestPriority priority, Supplier<Mono<T>> call) {
+        return Mono.defer(() -> attempt(priority, rateLimiter.deadline(priority), () -> timed(endpoint, call)));
+    }
+
+    private <T> Mono<T> timed(UpstreamEndpoint endpoint, Supplier<Mono<T>> call) {
+        return Mono.defer(() -> {
+            UpstreamIsolation.Permit permit = isolation.tryAcquire(endpoint);
+            long start = System.nanoTime();
+            return call.get()
+                    .doOnSuccess(result -> {
+                        metrics.record(endpoint.uri(), System.nanoTime() - start, null);
+                        permit.complete(null, System.nanoTime() - start);
+                    })
+                    .doOnError(e -> {
+                        metrics.record(endpoint.uri(), System.nanoTime() - start, e);
+                        permit.complete(e, System.nanoTime() - start);
+                    })
+                    .doFinally(signal -> permit.release());
+        });
+    }
+
+    // Same policy as EmployeeService.callUpstream, with delays instead of blocking waits
+    private <T> Mono<T> attempt(RequestPriority priority, long deadline, Supplier<Mono<T>> call) {
+        return acquire(priority, deadline)
+                .then(Mono.defer(call))
+                .doOnSuccess(result -> rateLimiter.onSuccess())
+                .onErrorResume(WebClientResponseException.TooManyRequests.class, e -> {
+                    Duration retryAfter = rateLimiter.onRateLimited(e.getHeaders().getFirst(RETRY_AFTER));
+                    if (System.nanoTime() + retryAfter.toNanos() - deadline > 0) {
+                        return Mono.error(e);
+                    }
+                    logger.info("Upstream rate limited the call, retrying after {}", retryAfter);
+                    return Mono.delay(retryAfter).then(attempt(priority, deadline, call));
+                });
+    }
+
+    private Mono<Void> acquire(RequestPriority priority, long deadline) {
+        return Mono.defer(() -> {
+            Duration wait = rateLimiter.tryAcquire(priority);
+            if (wait.isZero()) {
+                return Mono.empty();
+            }
+            if (System.nanoTime() + wait.toNanos() - deadline > 0) {
+                HttpHeaders headers = new HttpHeaders();
+                headers.set(RETRY_AFTER, String.valueOf(Math.max(1, wait.toSeconds())));
+                return Mono.error(WebClientResponseException.create(HttpStatus.TOO_MANY_REQUESTS.value(),
+                        "Upstream request budget exhausted", headers, null, null));
+            }
+            return Mono.delay(wait).then(acquire(priority, deadline));
+        });
+    }
+}
@@ -0,0 +1,131 @@
+package com.example.rqchallenge.employees.upstream;
+
+import com.example.rqchallenge.config.ResilienceProperties;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker over the last few calls to one endpoint. It opens when too many of them failed or were
+ * slow, rejects everything while open, then lets a few trial calls through and closes only if all of them succeed.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final double failureRateThreshold;
+    private final double slowCallRateThreshold;
+    private final long slowCallNanos;
+    private final int minimumCalls;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final LongSupplier nanoClock;
+
+    // Ring buffer of the most recent outcomes, guarded by this
+    private final boolean[] failed;
+    private final boolean[] slow;
+    private int next;
+    private int recorded;
+    private int failures;
+    private int slowCalls;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int trialsStarted;
+    private int trialsSucceeded;
+
+    public CircuitBreaker(ResilienceProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    public CircuitBreaker(ResilienceProperties properties, LongSupplier nanoClock) {
+        this.failureRateThreshold = properties.getFailureRateThreshold();
+        this.slowCallRateThreshold = properties.getSlowCallRateThreshold();
+        this.slowCallNanos = properties.getSlowCallThreshold().toNanos();
+        this.minimumCalls = Math.max(1, properties.getMinimumCalls());
+        this.openNanos = properties.getOpenDuration().toNanos();
+        this.halfOpenCalls = Math.max(1, properties.getHalfOpenCalls());
+        this.nanoClock = nanoClock;
+        int window = Math.max(this.minimumCalls, properties.getSlidingWindowSize());
+        this.failed = new boolean[window];
+        this.slow = new boolean[window];
+    }
+
+    // False while open, or while half-open with all trial calls already handed out
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (nanoClock.getAsLong() - openedAt < openNanos) {
+                return false;
+            }
+            state = State.HALF_OPEN;
+            trialsStarted = 0;
+            trialsSucceeded = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialsStarted >= halfOpenCalls) {
+                return false;
+            }
+            trialsStarted++;
+        }
+        return true;
+    }
+
+    public synchronized void onResult(boolean failure, long elapsedNanos) {
+        boolean slowCall = elapsedNanos >= slowCallNanos;
+        if (state == State.HALF_OPEN) {
+            if (failure || slowCall) {
+                open();
+            } else if (++trialsSucceeded >= halfOpenCalls) {
+                close();
+            }
+            return;
+        }
+        if (state == State.OPEN) {
+            // A call that started before the breaker opened, it has nothing left to decide
+            return;
+        }
+
+        record(failure, slowCall);
+        if (recorded >= minimumCalls
+                && (failures >= failureRateThreshold * recorded || slowCalls >= slowCallRateThreshold * recorded)) {
+            open();
+        }
+    }
+
+    // For acquired calls whose outcome says nothing about the endpoint's health, e.g. a 429 or a cancelled call
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN && trialsStarted > trialsSucceeded) {
+            trialsStarted--;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private void record(boolean failure, boolean slowCall) {
+        if (recorded == failed.length) {
+            failures -= failed[next] ? 1 : 0;
+            slowCalls -= slow[next] ? 1 : 0;
+        } else {
+            recorded++;
+        }
+        failed[next] = failure;
+        slow[next] = slowCall;
+        failures += failure ? 1 : 0;
+        slowCalls += slowCall ? 1 : 0;
+        next = (next + 1) % failed.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = nanoClock.getAsLong();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        next = 0;
+        recorded = 0;
+        failures = 0;
+        slowCalls = 0;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.rqchallenge.employees.upstream;
+
+import com.example.rqchallenge.employees.model.Employee;
+import com.example.rqchallenge.employees.model.EmployeeListResponse;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reads the upstream /employees envelope token by token, binding each element of "data" straight into an
+ * {@link Employee} instead of materializing the whole payload as maps first.
+ */
+public class EmployeeResponseReader {
+
+    private static final String STATUS = "status";
+    private static final String DATA = "data";
+
+    private final ObjectMapper mapper;
+    private final ObjectReader employeeReader;
+
+    public EmployeeResponseReader() {
+        this(new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false));
+    }
+
+    public EmployeeResponseReader(ObjectMapper mapper) {
+        this.mapper = mapper;
+        this.employeeReader = mapper.readerFor(Employee.class);
+    }
+
+    public EmployeeListResponse readEmployeeList(InputStream body) throws IOException {
+        List<Employee> employees = new ArrayList<>();
+        String status = readEmployees(body, employees::add);
+        return new EmployeeListResponse(status, employees);
+    }
+
+    // Hands every employee to the sink as soon as it is parsed and returns the envelope status
+    public String readEmployees(InputStream body, Consumer<Employee> sink) throws IOException {
+        try (JsonParser parser = mapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected an employee list envelope");
+            }
+
+            String status = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (STATUS.equals(field) && !value.isStructStart()) {
+                    status = parser.getValueAsString();
+                } else if (DATA.equals(field) && value == JsonToken.START_ARRAY) {
+                    JsonToken element;
+                    while ((element = parser.nextToken()) != JsonToken.END_ARRAY && element != null) {
+                        if (element == JsonToken.START_OBJECT) {
+                            sink.accept(employeeReader.readValue(parser));
+                        } else {
+                            // Anything else in the list is passed over whole, so a nested array's end is not taken for the list's
+                            parser.skipChildren();
+                        }
+                    }
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return status;
+        }
+    }
+}
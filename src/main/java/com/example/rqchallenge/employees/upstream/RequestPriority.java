@@ -0,0 +1,10 @@
+package com.example.rqchallenge.employees.upstream;
+
+public enum RequestPriority {
+    // A client is waiting on the result
+    INTERACTIVE,
+    // Items of a bulk request: a client is waiting, but on the batch as a whole rather than each call
+    BULK,
+    // Cache refreshes and other work nobody is blocked on
+    BACKGROUND
+}
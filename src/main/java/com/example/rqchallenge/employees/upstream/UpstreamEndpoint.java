@@ -0,0 +1,22 @@
+package com.example.rqchallenge.employees.upstream;
+
+/**
+ * The upstream routes the service calls, each isolated behind its own circuit breaker and bulkhead.
+ */
+public enum UpstreamEndpoint {
+    EMPLOYEES("/employees"),
+    EMPLOYEE("/employee/{id}"),
+    CREATE("/create"),
+    DELETE("/delete/{id}");
+
+    private final String uri;
+
+    UpstreamEndpoint(String uri) {
+        this.uri = uri;
+    }
+
+    // URI template, also used as the metrics tag
+    public String uri() {
+        return uri;
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.rqchallenge.employees.upstream;
+
+import com.example.rqchallenge.config.ResilienceProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A circuit breaker and a bulkhead per upstream endpoint, so a failing or slow route fails fast on its own
+ * instead of tying up callers and connections that the other routes need.
+ */
+public class UpstreamIsolation implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(UpstreamIsolation.class);
+
+    private final Map<UpstreamEndpoint, CircuitBreaker> breakers = new EnumMap<>(UpstreamEndpoint.class);
+    private final Map<UpstreamEndpoint, Semaphore> bulkheads = new EnumMap<>(UpstreamEndpoint.class);
+    private final Map<UpstreamEndpoint, AtomicLong> rejected = new EnumMap<>(UpstreamEndpoint.class);
+
+    public UpstreamIsolation(ResilienceProperties properties) {
+        for (UpstreamEndpoint endpoint : UpstreamEndpoint.values()) {
+            int limit = properties.getMaxConcurrentCallsPerEndpoint().getOrDefault(endpoint, properties.getMaxConcurrentCalls());
+            breakers.put(endpoint, new CircuitBreaker(properties));
+            bulkheads.put(endpoint, new Semaphore(Math.max(1, limit)));
+            rejected.put(endpoint, new AtomicLong());
+        }
+    }
+
+    // Blocking callers wait for a bulkhead slot until the deadline, a System.nanoTime value
+    public Permit acquire(UpstreamEndpoint endpoint, long deadline) {
+        CircuitBreaker breaker = checkBreaker(endpoint);
+        boolean acquired;
+        try {
+            acquired = bulkheads.get(endpoint).tryAcquire(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        return permitOrReject(endpoint, breaker, acquired);
+    }
+
+    // Non-blocking callers are turned away straight away when the bulkhead is full
+    public Permit tryAcquire(UpstreamEndpoint endpoint) {
+        CircuitBreaker breaker = checkBreaker(endpoint);
+        return permitOrReject(endpoint, breaker, bulkheads.get(endpoint).tryAcquire());
+    }
+
+    public CircuitBreaker.State getState(UpstreamEndpoint endpoint) {
+        return breakers.get(endpoint).getState();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (UpstreamEndpoint endpoint : UpstreamEndpoint.values()) {
+            Gauge.builder("upstream.circuit.state", breakers.get(endpoint), breaker -> breaker.getState().ordinal())
+                    .description("Circuit breaker state: 0 closed, 1 open, 2 half open")
+                    .tag("uri", endpoint.uri())
+                    .register(registry);
+            Gauge.builder("upstream.bulkhead.available", bulkheads.get(endpoint), Semaphore::availablePermits)
+                    .description("Free concurrent call slots")
+                    .tag("uri", endpoint.uri())
+                    .register(registry);
+            FunctionCounter.builder("upstream.isolation.rejected", rejected.get(endpoint), AtomicLong::get)
+                    .description("Calls failed fast by an open breaker or a full bulkhead")
+                    .tag("uri", endpoint.uri())
+                    .register(registry);
+        }
+    }
+
+    private CircuitBreaker checkBreaker(UpstreamEndpoint endpoint) {
+        CircuitBreaker breaker = breakers.get(endpoint);
+        if (!breaker.tryAcquire()) {
+            rejected.get(endpoint).incrementAndGet();
+            throw new UpstreamUnavailableException(endpoint, "Circuit breaker for " + endpoint.uri() + " is open");
+        }
+        return breaker;
+    }
+
+    private Permit permitOrReject(UpstreamEndpoint endpoint, CircuitBreaker breaker, boolean acquired) {
+        if (!acquired) {
+            breaker.onIgnored();
+            rejected.get(endpoint).incrementAndGet();
+            logger.warn("Bulkhead for {} is full", endpoint.uri());
+            throw new UpstreamUnavailableException(endpoint, "Too many concurrent calls to " + endpoint.uri());
+        }
+        return new Permit(breaker, bulkheads.get(endpoint));
+    }
+
+    /**
+     * One admitted call. Report its outcome with {@link #complete}, which may be called per attempt,
+     * and always {@link #release} it once done.
+     */
+    public static final class Permit {
+        private final CircuitBreaker breaker;
+        private final Semaphore bulkhead;
+        private final AtomicBoolean completed = new AtomicBoolean();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(CircuitBreaker breaker, Semaphore bulkhead) {
+            this.breaker = breaker;
+            this.bulkhead = bulkhead;
+        }
+
+        // A null error is a success. 429s are left to the rate limiter, other 4xx mean the endpoint itself is healthy.
+        public void complete(Throwable error, long elapsedNanos) {
+            String outcome = error == null ? UpstreamMetrics.SUCCESS : UpstreamMetrics.outcome(error);
+            if (UpstreamMetrics.RATE_LIMITED.equals(outcome) || !completed.compareAndSet(false, true)) {
+                return;
+            }
+            boolean failure = UpstreamMetrics.SERVER_ERROR.equals(outcome) || UpstreamMetrics.UNKNOWN.equals(outcome);
+            breaker.onResult(failure, elapsedNanos);
+        }
+
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                if (!completed.get()) {
+                    breaker.onIgnored();
+                }
+                bulkhead.release();
+            }
+        }
+    }
+}
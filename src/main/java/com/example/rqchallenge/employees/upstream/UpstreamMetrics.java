@@ -0,0 +1,166 @@
+package com.example.rqchallenge.employees.upstream;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Upstream call metrics, tagged by the URI template of the endpoint so ids do not blow up the tag cardinality.
+ * <ul>
+ *     <li>{@code upstream.requests} timer per call attempt, tagged with its outcome, less any body read through {@link #readBody}</li>
+ *     <li>{@code upstream.errors} counter for 429s, 404s and other failures</li>
+ *     <li>{@code upstream.deserialization} timer and {@code upstream.response.size} summary for bodies we parse ourselves</li>
+ * </ul>
+ */
+public class UpstreamMetrics {
+
+    public static final String SUCCESS = "SUCCESS";
+    public static final String RATE_LIMITED = "RATE_LIMITED";
+    public static final String NOT_FOUND = "NOT_FOUND";
+    public static final String CLIENT_ERROR = "CLIENT_ERROR";
+    public static final String SERVER_ERROR = "SERVER_ERROR";
+    public static final String UNKNOWN = "UNKNOWN";
+
+    private final MeterRegistry registry;
+    // Time readBody spent inside the record(uri, call) running on this thread, so it is counted once, as deserialization
+    private final ThreadLocal<long[]> readingNanos = new ThreadLocal<>();
+
+    public UpstreamMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public <T> T record(String uri, Supplier<T> call) {
+        long[] reading = new long[1];
+        long[] enclosing = readingNanos.get();
+        readingNanos.set(reading);
+        long start = System.nanoTime();
+        try {
+            T result = call.get();
+            record(uri, System.nanoTime() - start - reading[0], null);
+            return result;
+        } catch (RuntimeException e) {
+            record(uri, System.nanoTime() - start - reading[0], e);
+            throw e;
+        } finally {
+            if (enclosing != null) {
+                readingNanos.set(enclosing);
+            } else {
+                readingNanos.remove();
+            }
+        }
+    }
+
+    // A null error means the call succeeded
+    public void record(String uri, long elapsedNanos, Throwable error) {
+        String outcome = error == null ? SUCCESS : outcome(error);
+        Timer.builder("upstream.requests")
+                .description("Upstream call latency per attempt")
+                .tag("uri", uri)
+                .tag("outcome", outcome)
+                .register(registry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        if (error != null) {
+            Counter.builder("upstream.errors")
+                    .description("Upstream calls that did not succeed")
+                    .tag("uri", uri)
+                    .tag("outcome", outcome)
+                    .register(registry)
+                    .increment();
+        }
+    }
+
+    // Parsing is streamed, so the time includes pulling the body off the socket as well as binding it
+    public <T> T readBody(String uri, InputStream body, BodyReader<T> reader) throws IOException {
+        CountingInputStream counting = new CountingInputStream(body);
+        long start = System.nanoTime();
+        try {
+            return reader.read(counting);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            long[] reading = readingNanos.get();
+            if (reading != null) {
+                reading[0] += elapsed;
+            }
+            Timer.builder("upstream.deserialization")
+                    .description("Time spent reading and binding upstream response bodies")
+                    .tag("uri", uri)
+                    .register(registry)
+                    .record(elapsed, TimeUnit.NANOSECONDS);
+            DistributionSummary.builder("upstream.response.size")
+                    .description("Upstream response body size after decompression")
+                    .baseUnit("bytes")
+                    .tag("uri", uri)
+                    .register(registry)
+                    .record(counting.count);
+        }
+    }
+
+    static String outcome(Throwable error) {
+        int status;
+        if (error instanceof RestClientResponseException) {
+            status = ((RestClientResponseException) error).getRawStatusCode();
+        } else if (error instanceof WebClientResponseException) {
+            status = ((WebClientResponseException) error).getRawStatusCode();
+        } else {
+            return UNKNOWN;
+        }
+
+        if (status == 429) {
+            return RATE_LIMITED;
+        } else if (status == 404) {
+            return NOT_FOUND;
+        } else if (status >= 500) {
+            return SERVER_ERROR;
+        } else if (status >= 400) {
+            return CLIENT_ERROR;
+        }
+        return UNKNOWN;
+    }
+
+    @FunctionalInterface
+    public interface BodyReader<T> {
+        T read(InputStream body) throws IOException;
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value >= 0) {
+                count++;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
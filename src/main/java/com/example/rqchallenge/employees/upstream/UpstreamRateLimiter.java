@@ -0,0 +1,266 @@
+package com.example.rqchallenge.employees.upstream;
+
+import com.example.rqchallenge.config.RateLimitProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Client-side token bucket in front of the upstream. The refill rate is learned from the upstream itself:
+ * every 429 halves it and blocks all callers until Retry-After has passed, every accepted call nudges it back up.
+ * A caller only gets a token when nobody of a higher priority is waiting for one.
+ */
+public class UpstreamRateLimiter implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(UpstreamRateLimiter.class);
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final long YIELD_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final RateLimitProperties properties;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition budgetChanged = lock.newCondition();
+    private final int[] waiting = new int[RequestPriority.values().length];
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    private double rate;
+    private double tokens;
+    private long lastRefill;
+    private long blockedUntil;
+
+    public UpstreamRateLimiter(RateLimitProperties properties) {
+        this.properties = properties;
+        this.rate = properties.getInitialRate();
+        this.tokens = properties.getBurst();
+        this.lastRefill = System.nanoTime();
+        this.blockedUntil = lastRefill;
+    }
+
+    // Latest System.nanoTime by which a caller of the given priority should have its answer
+    public long deadline(RequestPriority priority) {
+        Duration maxWait;
+        switch (priority) {
+            case INTERACTIVE:
+                maxWait = properties.getInteractiveMaxWait();
+                break;
+            case BULK:
+                maxWait = properties.getBulkMaxWait();
+                break;
+            default:
+                maxWait = properties.getBackgroundMaxWait();
+        }
+        return System.nanoTime() + maxWait.toNanos();
+    }
+
+    // Waits for a token until the deadline (a System.nanoTime value), returning false if none became available
+    public boolean acquire(RequestPriority priority, long deadline) {
+        lock.lock();
+        waiting[priority.ordinal()]++;
+        try {
+            while (true) {
+                long now = System.nanoTime();
+                refill(now);
+
+                boolean yieldToHigher = higherPriorityWaiting(priority);
+                boolean blocked = now - blockedUntil < 0;
+                if (!blocked && tokens >= 1 && !yieldToHigher) {
+                    tokens -= 1;
+                    return true;
+                }
+
+                long remaining = deadline - now;
+                if (remaining <= 0) {
+                    rejected.incrementAndGet();
+                    return false;
+                }
+
+                long wait;
+                if (blocked) {
+                    wait = blockedUntil - now;
+                } else if (tokens < 1) {
+                    wait = (long) ((1 - tokens) / rate * NANOS_PER_SECOND);
+                } else {
+                    wait = YIELD_NANOS;
+                }
+                budgetChanged.awaitNanos(Math.max(1, Math.min(wait, remaining)));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rejected.incrementAndGet();
+            return false;
+        } finally {
+            waiting[priority.ordinal()]--;
+            budgetChanged.signalAll();
+            lock.unlock();
+        }
+    }
+
+    // Non-blocking variant for reactive callers: takes a token and returns zero, or says how long to wait before asking again
+    public Duration tryAcquire(RequestPriority priority) {
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            refill(now);
+
+            boolean yieldToHigher = higherPriorityWaiting(priority);
+            boolean blocked = now - blockedUntil < 0;
+            if (!blocked && tokens >= 1 && !yieldToHigher) {
+                tokens -= 1;
+                return Duration.ZERO;
+            }
+
+            if (blocked) {
+                return Duration.ofNanos(blockedUntil - now);
+            }
+            if (tokens < 1) {
+                return Duration.ofNanos(Math.max(1, (long) ((1 - tokens) / rate * NANOS_PER_SECOND)));
+            }
+            return Duration.ofNanos(YIELD_NANOS);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void onSuccess() {
+        lock.lock();
+        try {
+            rate = Math.min(properties.getMaxRate(), rate + properties.getAdditiveIncrease());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Records a 429 and returns how long the upstream asked us to stay away
+    public Duration onRateLimited(String retryAfterHeader) {
+        Duration retryAfter = parseRetryAfter(retryAfterHeader);
+        throttled.incrementAndGet();
+
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            refill(now);
+            rate = Math.max(properties.getMinRate(), rate / 2);
+            tokens = 0;
+            long until = now + retryAfter.toNanos();
+            if (until - blockedUntil > 0) {
+                blockedUntil = until;
+            }
+            logger.warn("Upstream rate limit hit, backing off for {} and lowering rate to {}/s", retryAfter, String.format("%.2f", rate));
+            budgetChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        return retryAfter;
+    }
+
+    public double getRate() {
+        lock.lock();
+        try {
+            return rate;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public double getAvailableTokens() {
+        lock.lock();
+        try {
+            refill(System.nanoTime());
+            return tokens;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueueDepth(RequestPriority priority) {
+        lock.lock();
+        try {
+            return waiting[priority.ordinal()];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Duration getBlockedFor() {
+        lock.lock();
+        try {
+            long remaining = blockedUntil - System.nanoTime();
+            return remaining > 0 ? Duration.ofNanos(remaining) : Duration.ZERO;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("upstream.ratelimit.rate", this, UpstreamRateLimiter::getRate)
+                .description("Learned upstream request budget per second")
+                .register(registry);
+        Gauge.builder("upstream.ratelimit.tokens", this, UpstreamRateLimiter::getAvailableTokens)
+                .description("Requests that can be sent right now without waiting")
+                .register(registry);
+        Gauge.builder("upstream.ratelimit.blocked", this, limiter -> limiter.getBlockedFor().toMillis())
+                .description("Remaining Retry-After backoff")
+                .baseUnit("milliseconds")
+                .register(registry);
+        for (RequestPriority priority : RequestPriority.values()) {
+            Gauge.builder("upstream.ratelimit.queue.depth", this, limiter -> limiter.getQueueDepth(priority))
+                    .description("Callers waiting for upstream budget")
+                    .tag("priority", priority.name().toLowerCase())
+                    .register(registry);
+        }
+        FunctionCounter.builder("upstream.ratelimit.throttled", throttled, AtomicLong::get)
+                .description("429 responses received from the upstream")
+                .register(registry);
+        FunctionCounter.builder("upstream.ratelimit.rejected", rejected, AtomicLong::get)
+                .description("Calls that gave up waiting for upstream budget")
+                .register(registry);
+    }
+
+    private boolean higherPriorityWaiting(RequestPriority priority) {
+        for (int i = 0; i < priority.ordinal(); i++) {
+            if (waiting[i] > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void refill(long now) {
+        long elapsed = now - lastRefill;
+        if (elapsed > 0) {
+            tokens = Math.min(properties.getBurst(), tokens + rate * elapsed / NANOS_PER_SECOND);
+            lastRefill = now;
+        }
+    }
+
+    private Duration parseRetryAfter(String header) {
+        if (header == null || header.isBlank()) {
+            return properties.getDefaultRetryAfter();
+        }
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(header.trim())));
+        } catch (NumberFormatException e) {
+            // Retry-After may also be an HTTP date
+        }
+        try {
+            Duration untilDate = Duration.between(ZonedDateTime.now(), ZonedDateTime.parse(header.trim(), DateTimeFormatter.RFC_1123_DATE_TIME));
+            return untilDate.isNegative() ? Duration.ZERO : untilDate;
+        } catch (DateTimeParseException e) {
+            logger.warn("Ignoring unparseable Retry-After header '{}'", header);
+            return properties.getDefaultRetryAfter();
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.rqchallenge.employees.upstream;
+
+/**
+ * Thrown instead of calling the upstream when an endpoint's circuit breaker is open or its bulkhead is full.
+ */
+public class UpstreamUnavailableException extends RuntimeException {
+
+    private final UpstreamEndpoint endpoint;
+
+    public UpstreamUnavailableException(UpstreamEndpoint endpoint, String message) {
+        super(message);
+        this.endpoint = endpoint;
+    }
+
+    public UpstreamEndpoint getEndpoint() {
+        return endpoint;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.rqchallenge;
+
+import com.example.rqchallenge.employees.controller.CachedJsonListHttpMessageConverter;
+import com.example.rqchallenge.employees.model.CachedJsonList;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachedJsonListHttpMessageConverterTests {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final CachedJsonListHttpMessageConverter converter = new CachedJsonListHttpMessageConverter(objectMapper);
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void testLargeListIsGzippedWhenTheRequestAcceptsIt() throws IOException {
+        List<String> names = names(100);
+        MockHttpOutputMessage output = write(new CachedJsonList<>(names), "deflate, gzip;q=0.8");
+
+        assertEquals("gzip", output.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(output.getBodyAsBytes()))) {
+            assertEquals(objectMapper.writeValueAsString(names), new String(in.readAllBytes()));
+        }
+    }
+
+    @Test
+    void testListIsWrittenPlainWhenGzipIsRefusedOrNotWorthIt() throws IOException {
+        List<String> names = names(100);
+        assertPlain(write(new CachedJsonList<>(names), "gzip;q=0"), names);
+        assertPlain(write(new CachedJsonList<>(names), null), names);
+        assertPlain(write(new CachedJsonList<>(names(10)), "gzip"), names(10));
+    }
+
+    private MockHttpOutputMessage write(CachedJsonList<String> list, String acceptEncoding) throws IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/employees");
+        if (acceptEncoding != null) {
+            request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(list, MediaType.APPLICATION_JSON, output);
+        return output;
+    }
+
+    private void assertPlain(MockHttpOutputMessage output, List<String> names) throws IOException {
+        assertNull(output.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(objectMapper.writeValueAsString(names), output.getBodyAsString());
+    }
+
+    private static List<String> names(int count) {
+        return IntStream.range(0, count).mapToObj(i -> "Employee " + i).collect(Collectors.toList());
+    }
+}
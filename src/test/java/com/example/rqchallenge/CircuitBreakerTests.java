@@ -0,0 +1,92 @@
+package com.example.rqchallenge;
+
+import com.example.rqchallenge.config.ResilienceProperties;
+import com.example.rqchallenge.employees.upstream.CircuitBreaker;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTests {
+
+    private final AtomicLong now = new AtomicLong();
+    private final CircuitBreaker breaker = new CircuitBreaker(properties(), now::get);
+
+    @Test
+    void testOpensOnceFailureRateCrossesThreshold() {
+        for (int i = 0; i < 2; i++) {
+            call(false, 10);
+        }
+        call(true, 10);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        call(true, 10);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire());
+    }
+
+    @Test
+    void testOpensOnSlowCalls() {
+        for (int i = 0; i < 4; i++) {
+            call(false, Duration.ofSeconds(2).toNanos());
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void testHalfOpenTrialsCloseOrReopenTheBreaker() {
+        for (int i = 0; i < 4; i++) {
+            call(true, 10);
+        }
+        now.addAndGet(Duration.ofSeconds(11).toNanos());
+
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+        assertFalse(breaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        breaker.onResult(false, 10);
+        breaker.onResult(false, 10);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        for (int i = 0; i < 4; i++) {
+            call(true, 10);
+        }
+        now.addAndGet(Duration.ofSeconds(11).toNanos());
+        assertTrue(breaker.tryAcquire());
+        breaker.onResult(true, 10);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void testIgnoredTrialHandsItsSlotBack() {
+        for (int i = 0; i < 4; i++) {
+            call(true, 10);
+        }
+        now.addAndGet(Duration.ofSeconds(11).toNanos());
+
+        assertTrue(breaker.tryAcquire());
+        assertTrue(breaker.tryAcquire());
+        breaker.onIgnored();
+        assertTrue(breaker.tryAcquire());
+    }
+
+    private void call(boolean failure, long elapsedNanos) {
+        assertTrue(breaker.tryAcquire());
+        breaker.onResult(failure, elapsedNanos);
+    }
+
+    private static ResilienceProperties properties() {
+        ResilienceProperties properties = new ResilienceProperties();
+        properties.setSlidingWindowSize(4);
+        properties.setMinimumCalls(4);
+        properties.setFailureRateThreshold(0.5);
+        properties.setSlowCallThreshold(Duration.ofSeconds(1));
+        properties.setSlowCallRateThreshold(1.0);
+        properties.setOpenDuration(Duration.ofSeconds(10));
+        properties.setHalfOpenCalls(2);
+        return properties;
+    }
+}
@@ -5,13 +5,17 @@ import com.example.rqchallenge.employees.service.EmployeeService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.test.web.client.MockRestServiceServer;
 import org.springframework.web.client.RestTemplate;
 
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -31,6 +35,15 @@ class EmployeeServiceIntegrationTest {
     @Autowired
     private RestTemplate restTemplate;
 
+    // Never warm start from a snapshot file another run left behind
+    @TempDir
+    static Path snapshotDir;
+
+    @DynamicPropertySource
+    static void snapshotFile(DynamicPropertyRegistry registry) {
+        registry.add("employees.cache.snapshot-file", () -> snapshotDir.resolve("employees.snapshot").toString());
+    }
+
     private MockRestServiceServer mockServer;
     private ObjectMapper objectMapper = new ObjectMapper();
 
@@ -0,0 +1,180 @@
+package com.example.rqchallenge;
+
+import com.example.rqchallenge.config.BulkProperties;
+import com.example.rqchallenge.config.ThreadingProperties;
+import com.example.rqchallenge.employees.controller.EmployeeController;
+import com.example.rqchallenge.employees.model.BulkItemResult;
+import com.example.rqchallenge.employees.model.CachedJsonList;
+import com.example.rqchallenge.employees.model.Employee;
+import com.example.rqchallenge.employees.model.EmployeePage;
+import com.example.rqchallenge.employees.model.Tagged;
+import com.example.rqchallenge.employees.service.EmployeeService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class EmployeeControllerTests {
+
+    @Mock
+    private EmployeeService employeeService;
+
+    private ThreadingProperties threadingProperties;
+
+    private EmployeeController controller;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        threadingProperties = new ThreadingProperties();
+        controller = new EmployeeController(employeeService, new BulkProperties(), threadingProperties, new ObjectMapper());
+    }
+
+    @Test
+    void testConditionalGetSendsAWeakETag() {
+        when(employeeService.getEmployeesETag()).thenReturn(Optional.of("abc"));
+        when(employeeService.getHighestSalaryOfEmployeesTaggedAsync()).thenReturn(CompletableFuture.completedFuture(new Tagged<>("abc", 100)));
+
+        ResponseEntity<Integer> response = controller.getHighestSalaryOfEmployees(request(new MockHttpServletRequest())).join();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(100, response.getBody());
+        assertEquals("W/\"abc\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    void testBodyIsSentWithTheETagOfTheSnapshotItWasReadFrom() {
+        // A refresh lands between the If-None-Match check and the read
+        when(employeeService.getEmployeesETag()).thenReturn(Optional.of("old"));
+        when(employeeService.getHighestSalaryOfEmployeesTaggedAsync()).thenReturn(CompletableFuture.completedFuture(new Tagged<>("new", 200)));
+
+        ResponseEntity<Integer> response = controller.getHighestSalaryOfEmployees(request(new MockHttpServletRequest())).join();
+
+        assertEquals(200, response.getBody());
+        assertEquals("W/\"new\"", response.getHeaders().getETag());
+    }
+
+    @Test
+    void testTopEarnersBeyondTheCapAreABadRequest() {
+        ResponseEntity<List<String>> response = controller.getTopTenHighestEarningEmployeeNames(2_000_000_000, request(new MockHttpServletRequest())).join();
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        verifyNoInteractions(employeeService);
+    }
+
+    @Test
+    void testMatchingIfNoneMatchGetsNotModifiedInEitherForm() {
+        when(employeeService.getEmployeesETag()).thenReturn(Optional.of("abc"));
+
+        for (String ifNoneMatch : List.of("\"abc\"", "W/\"abc\"")) {
+            MockHttpServletRequest servletRequest = new MockHttpServletRequest("GET", "/employees/highestSalary");
+            servletRequest.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+
+            ResponseEntity<Integer> response = controller.getHighestSalaryOfEmployees(request(servletRequest)).join();
+
+            assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        }
+        verify(employeeService, never()).getHighestSalaryOfEmployeesTaggedAsync();
+    }
+
+    @Test
+    void testControllerLeavesContentEncodingToTheConverter() {
+        CachedJsonList<Employee> employees = new CachedJsonList<>(Collections.nCopies(100, new Employee()));
+        when(employeeService.getEmployeesETag()).thenReturn(Optional.empty());
+        when(employeeService.getAllEmployeesTaggedAsync()).thenReturn(CompletableFuture.completedFuture(new Tagged<>(null, employees)));
+        MockHttpServletRequest servletRequest = new MockHttpServletRequest("GET", "/employees");
+        servletRequest.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+
+        ResponseEntity<List<Employee>> response = controller.getAllEmployees(request(servletRequest)).join();
+
+        assertSame(employees, response.getBody());
+        assertNull(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(List.of(HttpHeaders.ACCEPT_ENCODING), response.getHeaders().getVary());
+    }
+
+    @Test
+    void testSnapshotReadAlreadyCompleteIsAnsweredWithoutWaiting() {
+        when(employeeService.getEmployeesETag()).thenReturn(Optional.empty());
+        when(employeeService.getHighestSalaryOfEmployeesTaggedAsync()).thenReturn(CompletableFuture.completedFuture(new Tagged<>(null, 100)));
+
+        CompletableFuture<ResponseEntity<Integer>> response = controller.getHighestSalaryOfEmployees(request(new MockHttpServletRequest()));
+
+        assertTrue(response.isDone());
+        assertEquals(HttpStatus.OK, response.join().getStatusCode());
+    }
+
+    @Test
+    void testRequestStillWaitingAfterItsTimeoutGetsGatewayTimeout() {
+        threadingProperties.setRequestTimeout(Duration.ofMillis(50));
+        controller = new EmployeeController(employeeService, new BulkProperties(), threadingProperties, new ObjectMapper());
+        when(employeeService.getEmployeeByIDAsync("1")).thenReturn(new CompletableFuture<>());
+
+        ResponseEntity<Employee> response = controller.getEmployeeById("1").join();
+
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, response.getStatusCode());
+    }
+
+    @Test
+    void testSaturatedRequestExecutorGetsServiceUnavailable() {
+        when(employeeService.getEmployeeByIDAsync("1")).thenReturn(CompletableFuture.failedFuture(new RejectedExecutionException()));
+
+        ResponseEntity<Employee> response = controller.getEmployeeById("1").join();
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+    }
+
+    @Test
+    void testTimedOutBulkCallIsCancelled() {
+        threadingProperties.setBulkRequestTimeout(Duration.ofMillis(50));
+        controller = new EmployeeController(employeeService, new BulkProperties(), threadingProperties, new ObjectMapper());
+        CompletableFuture<List<BulkItemResult>> work = new CompletableFuture<>();
+        when(employeeService.deleteEmployeesByIdAsync(List.of("1", "2"))).thenReturn(work);
+
+        ResponseEntity<List<BulkItemResult>> response = controller.deleteEmployeesById(List.of("1", "2")).join();
+
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, response.getStatusCode());
+        assertTrue(work.isCancelled());
+    }
+
+    @Test
+    void testPageStreamsAsNdjsonWithTheNextCursorInALinkHeader() throws Exception {
+        EmployeePage page = new EmployeePage(List.of(new Employee("1", "Conor", "1000", "32", ""), new Employee("2", "Nolan", "2000", "40", "")), "2 b");
+        when(employeeService.getEmployeesPageAsync(2, null)).thenReturn(CompletableFuture.completedFuture(page));
+
+        ResponseEntity<StreamingResponseBody> response = controller.streamEmployeesPage(2, null).join();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        Objects.requireNonNull(response.getBody()).writeTo(body);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("application/x-ndjson", String.valueOf(response.getHeaders().getContentType()));
+        assertEquals("<?limit=2&after=2%20b>; rel=\"next\"", response.getHeaders().getFirst(HttpHeaders.LINK));
+        String[] lines = body.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("Nolan", new ObjectMapper().readValue(lines[1], Employee.class).getEmployeeName());
+    }
+
+    private static ServletWebRequest request(MockHttpServletRequest servletRequest) {
+        return new ServletWebRequest(servletRequest, new MockHttpServletResponse());
+    }
+}
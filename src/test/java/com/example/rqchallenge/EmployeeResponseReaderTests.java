@@ -0,0 +1,57 @@
+package com.example.rqchallenge;
+
+import com.example.rqchallenge.employees.model.Employee;
+import com.example.rqchallenge.employees.model.EmployeeListResponse;
+import com.example.rqchallenge.employees.upstream.EmployeeResponseReader;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmployeeResponseReaderTests {
+
+    private final EmployeeResponseReader reader = new EmployeeResponseReader();
+
+    @Test
+    void testReadsEveryEmployeeAndTheStatus() throws IOException {
+        EmployeeListResponse response = read("{\"status\":\"success\",\"data\":["
+                + "{\"id\":\"1\",\"employee_name\":\"Conor\",\"employee_salary\":\"1000\",\"employee_age\":\"32\",\"profile_image\":\"\"},"
+                + "{\"id\":\"2\",\"employee_name\":\"John Doe\",\"employee_salary\":\"2000\",\"employee_age\":\"29\",\"profile_image\":\"\"}]}");
+
+        assertEquals("success", response.getStatus());
+        assertEquals(List.of("Conor", "John Doe"), names(response));
+    }
+
+    @Test
+    void testSkipsNestedValuesItDoesNotBind() throws IOException {
+        EmployeeListResponse response = read("{\"meta\":{\"page\":[1,2]},\"status\":\"success\",\"data\":["
+                + "[{\"id\":\"9\"},[]],"
+                + "{\"id\":\"1\",\"employee_name\":\"Conor\",\"address\":{\"lines\":[\"a\",\"b\"]},\"employee_salary\":\"1000\"},"
+                + "7,null,"
+                + "{\"id\":\"2\",\"employee_name\":\"John Doe\",\"employee_salary\":\"2000\"}],\"extra\":[[1]]}");
+
+        assertEquals("success", response.getStatus());
+        assertEquals(List.of("Conor", "John Doe"), names(response));
+    }
+
+    @Test
+    void testStatusGivenAsAnObjectIsSkipped() throws IOException {
+        EmployeeListResponse response = read("{\"status\":{\"code\":\"success\"},\"data\":[{\"id\":\"1\",\"employee_name\":\"Conor\"}]}");
+
+        assertNull(response.getStatus());
+        assertEquals(List.of("Conor"), names(response));
+    }
+
+    private EmployeeListResponse read(String json) throws IOException {
+        return reader.readEmployeeList(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static List<String> names(EmployeeListResponse response) {
+        return response.getData().stream().map(Employee::getEmployeeName).collect(Collectors.toList());
+    }
+}
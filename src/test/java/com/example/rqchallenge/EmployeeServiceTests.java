@@ -1,23 +1,50 @@
 package com.example.rqchallenge;
 
+import com.example.rqchallenge.config.BulkProperties;
+import com.example.rqchallenge.config.EmployeeCacheProperties;
+import com.example.rqchallenge.config.RateLimitProperties;
+import com.example.rqchallenge.config.ResilienceProperties;
+import com.example.rqchallenge.employees.model.BulkItemResult;
+import com.example.rqchallenge.employees.model.DeleteEmployeeResponse;
 import com.example.rqchallenge.employees.model.Employee;
+import com.example.rqchallenge.employees.model.EmployeeResponse;
 import com.example.rqchallenge.employees.service.EmployeeService;
+import com.example.rqchallenge.employees.upstream.UpstreamIsolation;
+import com.example.rqchallenge.employees.upstream.UpstreamRateLimiter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -28,12 +55,25 @@ class EmployeeServiceTests {
     @Mock
     private RestTemplate restTemplate;
 
-    @InjectMocks
     private EmployeeService employeeService;
 
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final ExecutorService upstreamExecutor = Executors.newCachedThreadPool();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        employeeService = new EmployeeService(restTemplate, new EmployeeCacheProperties(), new UpstreamRateLimiter(new RateLimitProperties()),
+                new UpstreamIsolation(new ResilienceProperties()), upstreamExecutor, upstreamExecutor, upstreamExecutor, new BulkProperties(), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        employeeService.close();
+        upstreamExecutor.shutdownNow();
     }
 
     @Test
@@ -49,8 +89,7 @@ class EmployeeServiceTests {
             put("profile_image", "picture");
         }}));
 
-        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), isNull(), any(ParameterizedTypeReference.class)))
-                .thenReturn(new ResponseEntity<>(mockResponse, HttpStatus.OK));
+        stubEmployeeList(mockResponse);
 
         // get employees
         List<Employee> employees = employeeService.getAllEmployees();
@@ -74,8 +113,8 @@ class EmployeeServiceTests {
             put("profile_image", "picture");
         }});
 
-        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), isNull(), any(ParameterizedTypeReference.class)))
-                .thenReturn(new ResponseEntity<>(mockResponse, HttpStatus.OK));
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), isNull(), eq(EmployeeResponse.class)))
+                .thenReturn(new ResponseEntity<>(objectMapper.convertValue(mockResponse, EmployeeResponse.class), HttpStatus.OK));
 
         // Get employeee
         Employee employee = employeeService.getEmployeeByID("1");
@@ -99,8 +138,8 @@ class EmployeeServiceTests {
             put("profile_image", "pic");
         }});
 
-        when(restTemplate.exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class), any(ParameterizedTypeReference.class)))
-                .thenReturn(new ResponseEntity<>(mockResponse, HttpStatus.CREATED));
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.POST), any(HttpEntity.class), eq(EmployeeResponse.class)))
+                .thenReturn(new ResponseEntity<>(objectMapper.convertValue(mockResponse, EmployeeResponse.class), HttpStatus.CREATED));
 
         Map<String, Object> employeeInput = new HashMap<>();
         employeeInput.put("name", "Conor");
@@ -125,8 +164,7 @@ class EmployeeServiceTests {
                 Map.of("id", "2", "employee_name", "John Doe", "employee_salary", "10000", "employee_age", "29", "profile_image", "pic")
         ));
 
-        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), isNull(), any(ParameterizedTypeReference.class)))
-                .thenReturn(new ResponseEntity<>(mockResponse, HttpStatus.OK));
+        stubEmployeeList(mockResponse);
 
         // Call the method under test
         List<Employee> employees = employeeService.getEmployeesByNameSearch("Conor");
@@ -147,8 +185,7 @@ class EmployeeServiceTests {
                 Map.of("id", "2", "employee_name", "John Doe", "employee_salary", "10000", "employee_age", "29", "profile_image", "pic")
         ));
 
-        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), isNull(), any(ParameterizedTypeReference.class)))
-                .thenReturn(new ResponseEntity<>(mockResponse, HttpStatus.OK));
+        stubEmployeeList(mockResponse);
 
         // Call the method under test
         int highestemployee_salary = employeeService.getHighestSalaryOfEmployees();
@@ -180,8 +217,7 @@ class EmployeeServiceTests {
                 Map.of("id", "3", "employee_name", "John 15", "employee_salary", "15", "employee_age", "35", "profile_image", "")
         ));
 
-        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), isNull(), any(ParameterizedTypeReference.class)))
-                .thenReturn(new ResponseEntity<>(mockResponse, HttpStatus.OK));
+        stubEmployeeList(mockResponse);
 
         // Call method
         List<String> topEarningNames = employeeService.getTop10HighestEarningEmployeeNames();
@@ -200,8 +236,8 @@ class EmployeeServiceTests {
         mockResponse.put("status", "success");
         mockResponse.put("message", "Successfully deleted employee");
 
-        when(restTemplate.exchange(anyString(), eq(HttpMethod.DELETE), isNull(), any(ParameterizedTypeReference.class)))
-                .thenReturn(new ResponseEntity<>(mockResponse, HttpStatus.OK));
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.DELETE), isNull(), eq(DeleteEmployeeResponse.class)))
+                .thenReturn(new ResponseEntity<>(objectMapper.convertValue(mockResponse, DeleteEmployeeResponse.class), HttpStatus.OK));
 
         // Call methof for id 1
         String result = employeeService.deleteEmployeeById("1");
@@ -210,4 +246,330 @@ class EmployeeServiceTests {
         assertEquals("Successfully deleted employee", result);
     }
 
-}
\ No newline at end of file
+    @Test
+    void testDeleteEmployeeByIdRetriesAfterRateLimit() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Retry-After", "0");
+        Map<String, Object> mockResponse = new HashMap<>();
+        mockResponse.put("status", "success");
+        mockResponse.put("message", "Successfully deleted employee");
+
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.DELETE), isNull(), eq(DeleteEmployeeResponse.class)))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", headers, null, null))
+                .thenReturn(new ResponseEntity<>(objectMapper.convertValue(mockResponse, DeleteEmployeeResponse.class), HttpStatus.OK));
+
+        String result = employeeService.deleteEmployeeById("1");
+
+        assertEquals("Successfully deleted employee", result);
+        verify(restTemplate, times(2)).exchange(anyString(), eq(HttpMethod.DELETE), isNull(), eq(DeleteEmployeeResponse.class));
+        assertEquals(1, meterRegistry.get("upstream.errors").tag("uri", "/delete/{id}").tag("outcome", "RATE_LIMITED").counter().count());
+        assertEquals(1, meterRegistry.get("upstream.requests").tag("uri", "/delete/{id}").tag("outcome", "SUCCESS").timer().count());
+    }
+
+    @Test
+    void testDeleteEmployeeByIdFreesItsBulkheadSlotWhileWaitingOutRetryAfter() throws Exception {
+        ResilienceProperties resilienceProperties = new ResilienceProperties();
+        resilienceProperties.setMaxConcurrentCalls(1);
+        UpstreamIsolation isolation = new UpstreamIsolation(resilienceProperties);
+        isolation.bindTo(meterRegistry);
+        employeeService.close();
+        employeeService = new EmployeeService(restTemplate, new EmployeeCacheProperties(), new UpstreamRateLimiter(new RateLimitProperties()),
+                isolation, upstreamExecutor, upstreamExecutor, upstreamExecutor, new BulkProperties(), meterRegistry);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Retry-After", "1");
+        Map<String, Object> mockResponse = new HashMap<>();
+        mockResponse.put("status", "success");
+        mockResponse.put("message", "Successfully deleted employee");
+        CountDownLatch rateLimited = new CountDownLatch(1);
+
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.DELETE), isNull(), eq(DeleteEmployeeResponse.class)))
+                .thenAnswer(invocation -> {
+                    rateLimited.countDown();
+                    throw HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", headers, null, null);
+                })
+                .thenReturn(new ResponseEntity<>(objectMapper.convertValue(mockResponse, DeleteEmployeeResponse.class), HttpStatus.OK));
+
+        CompletableFuture<String> result = CompletableFuture.supplyAsync(() -> employeeService.deleteEmployeeById("1"), upstreamExecutor);
+        assertTrue(rateLimited.await(5, TimeUnit.SECONDS));
+        Thread.sleep(200);
+
+        // Waiting for the retry, the call holds no slot
+        assertEquals(1, meterRegistry.get("upstream.bulkhead.available").tag("uri", "/delete/{id}").gauge().value());
+        assertEquals("Successfully deleted employee", result.get(5, TimeUnit.SECONDS));
+        assertEquals(1, meterRegistry.get("upstream.bulkhead.available").tag("uri", "/delete/{id}").gauge().value());
+    }
+
+    @Test
+    void testInteractiveLookupDoesNotJoinABulkLookupOfTheSameId() throws Exception {
+        Map<String, Object> mockResponse = new HashMap<>();
+        mockResponse.put("status", "success");
+        mockResponse.put("data", Map.of("id", "1", "employee_name", "Conor", "employee_salary", "10000", "employee_age", "29", "profile_image", ""));
+        ResponseEntity<EmployeeResponse> found = new ResponseEntity<>(objectMapper.convertValue(mockResponse, EmployeeResponse.class), HttpStatus.OK);
+        CountDownLatch bulkStarted = new CountDownLatch(1);
+        CountDownLatch releaseBulk = new CountDownLatch(1);
+
+        when(restTemplate.exchange(endsWith("/employee/1"), eq(HttpMethod.GET), isNull(), eq(EmployeeResponse.class)))
+                .thenAnswer(invocation -> {
+                    bulkStarted.countDown();
+                    releaseBulk.await(5, TimeUnit.SECONDS);
+                    return found;
+                })
+                .thenReturn(found);
+
+        CompletableFuture<List<BulkItemResult>> bulk = CompletableFuture.supplyAsync(() -> employeeService.getEmployeesByIds(List.of("1")), upstreamExecutor);
+        assertTrue(bulkStarted.await(5, TimeUnit.SECONDS));
+
+        // Answered by its own call while the bulk one is still out
+        assertEquals("Conor", employeeService.getEmployeeByID("1").getEmployeeName());
+        assertFalse(bulk.isDone());
+
+        releaseBulk.countDown();
+        assertEquals("Conor", bulk.get(5, TimeUnit.SECONDS).get(0).getEmployee().getEmployeeName());
+    }
+
+    @Test
+    void testCancelledBulkDeleteStopsSendingItems() throws Exception {
+        BulkProperties bulkProperties = new BulkProperties();
+        bulkProperties.setParallelism(1);
+        employeeService.close();
+        employeeService = new EmployeeService(restTemplate, new EmployeeCacheProperties(), new UpstreamRateLimiter(new RateLimitProperties()),
+                new UpstreamIsolation(new ResilienceProperties()), upstreamExecutor, upstreamExecutor, upstreamExecutor, bulkProperties, meterRegistry);
+
+        Map<String, Object> mockResponse = new HashMap<>();
+        mockResponse.put("status", "success");
+        mockResponse.put("message", "Successfully deleted employee");
+        CountDownLatch firstStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.DELETE), isNull(), eq(DeleteEmployeeResponse.class)))
+                .thenAnswer(invocation -> {
+                    firstStarted.countDown();
+                    releaseFirst.await(5, TimeUnit.SECONDS);
+                    return new ResponseEntity<>(objectMapper.convertValue(mockResponse, DeleteEmployeeResponse.class), HttpStatus.OK);
+                });
+
+        CompletableFuture<List<BulkItemResult>> results = employeeService.deleteEmployeesByIdAsync(List.of("1", "2", "3", "4"));
+        assertTrue(firstStarted.await(5, TimeUnit.SECONDS));
+        results.cancel(false);
+        releaseFirst.countDown();
+
+        // The item already sent finishes, none of the others goes out
+        verify(restTemplate, after(300).times(1)).exchange(anyString(), eq(HttpMethod.DELETE), isNull(), eq(DeleteEmployeeResponse.class));
+    }
+
+    @Test
+    void testBulkItemsTheBulkExecutorRejectsAreReportedAsFailed() {
+        BulkProperties bulkProperties = new BulkProperties();
+        bulkProperties.setParallelism(1);
+        ExecutorService saturated = Executors.newSingleThreadExecutor();
+        saturated.shutdown();
+        employeeService.close();
+        employeeService = new EmployeeService(restTemplate, new EmployeeCacheProperties(), new UpstreamRateLimiter(new RateLimitProperties()),
+                new UpstreamIsolation(new ResilienceProperties()), upstreamExecutor, upstreamExecutor, saturated, bulkProperties, meterRegistry);
+
+        // With one permit, a permit kept by the first rejected item would leave the second waiting forever
+        List<BulkItemResult> results = assertTimeoutPreemptively(Duration.ofSeconds(5), () -> employeeService.deleteEmployeesById(List.of("1", "2")));
+
+        assertEquals(List.of(BulkItemResult.FAILED, BulkItemResult.FAILED),
+                results.stream().map(BulkItemResult::getStatus).collect(Collectors.toList()));
+        verifyNoInteractions(restTemplate);
+    }
+
+    @Test
+    void testDeleteEmployeesByIdReportsEachItem() {
+        Map<String, Object> mockResponse = new HashMap<>();
+        mockResponse.put("status", "success");
+        mockResponse.put("message", "Successfully deleted employee");
+
+        when(restTemplate.exchange(endsWith("/delete/1"), eq(HttpMethod.DELETE), isNull(), eq(DeleteEmployeeResponse.class)))
+                .thenReturn(new ResponseEntity<>(objectMapper.convertValue(mockResponse, DeleteEmployeeResponse.class), HttpStatus.OK));
+        when(restTemplate.exchange(endsWith("/delete/2"), eq(HttpMethod.DELETE), isNull(), eq(DeleteEmployeeResponse.class)))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", new HttpHeaders(), null, null));
+
+        List<BulkItemResult> results = employeeService.deleteEmployeesById(List.of("1", "2"));
+
+        assertEquals(2, results.size());
+        assertEquals("1", results.get(0).getId());
+        assertEquals(BulkItemResult.SUCCESS, results.get(0).getStatus());
+        assertEquals("2", results.get(1).getId());
+        assertEquals(BulkItemResult.NOT_FOUND, results.get(1).getStatus());
+    }
+
+    @Test
+    void testGetAllEmployeesSkipsUnknownFieldsWhileStreaming() {
+        Map<String, Object> mockResponse = new HashMap<>();
+        mockResponse.put("status", "success");
+        mockResponse.put("meta", Map.of("page", 1));
+        mockResponse.put("data", List.of(
+                Map.of("id", "1", "employee_name", "Conor", "employee_salary", "1000", "employee_age", "32", "profile_image", "", "department", "eng")
+        ));
+
+        stubEmployeeList(mockResponse);
+
+        List<Employee> employees = employeeService.getAllEmployees();
+
+        assertEquals(1, employees.size());
+        assertEquals("1000", employees.get(0).getSalary());
+    }
+
+    @Test
+    void testUpstreamAndCacheMetricsAreRecorded() {
+        Map<String, Object> mockResponse = new HashMap<>();
+        mockResponse.put("status", "success");
+        mockResponse.put("data", List.of(
+                Map.of("id", "1", "employee_name", "Conor", "employee_salary", "1000", "employee_age", "32", "profile_image", "")
+        ));
+
+        stubEmployeeList(mockResponse);
+
+        employeeService.getAllEmployees();
+        employeeService.getHighestSalaryOfEmployees();
+
+        assertEquals(1, meterRegistry.get("upstream.requests").tag("uri", "/employees").timer().count());
+        assertEquals(1, meterRegistry.get("upstream.deserialization").tag("uri", "/employees").timer().count());
+        assertTrue(meterRegistry.get("upstream.response.size").tag("uri", "/employees").summary().totalAmount() > 0);
+        assertEquals(1, meterRegistry.get("employees.cache.requests").tag("result", "miss").functionCounter().count());
+        assertEquals(1, meterRegistry.get("employees.cache.requests").tag("result", "hit").functionCounter().count());
+        assertEquals(1, meterRegistry.get("employees.cache.refresh").functionTimer().count());
+        assertEquals(1, meterRegistry.get("employees.cache.size").gauge().value());
+    }
+
+    @Test
+    void testGetEmployeeByIdFallsBackToSnapshotAndBreakerOpens() {
+        Map<String, Object> mockResponse = new HashMap<>();
+        mockResponse.put("status", "success");
+        mockResponse.put("data", List.of(
+                Map.of("id", "1", "employee_name", "Conor", "employee_salary", "1000", "employee_age", "32", "profile_image", "")
+        ));
+        stubEmployeeList(mockResponse);
+        employeeService.getAllEmployees();
+
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), isNull(), eq(EmployeeResponse.class)))
+                .thenThrow(HttpServerErrorException.create(HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", new HttpHeaders(), null, null));
+
+        // The default breaker opens after ten failed calls, later lookups never reach the upstream
+        for (int i = 0; i < 12; i++) {
+            Employee employee = employeeService.getEmployeeByID("1");
+            assertNotNull(employee);
+            assertEquals("Conor", employee.getEmployeeName());
+        }
+        verify(restTemplate, times(10)).exchange(anyString(), eq(HttpMethod.GET), isNull(), eq(EmployeeResponse.class));
+        assertNull(employeeService.getEmployeeByID("2"));
+    }
+
+    @Test
+    void testGetEmployeesByIdsServesSnapshotAndFetchesTheRestOnce() {
+        Map<String, Object> mockResponse = new HashMap<>();
+        mockResponse.put("status", "success");
+        mockResponse.put("data", List.of(
+                Map.of("id", "1", "employee_name", "Conor", "employee_salary", "1000", "employee_age", "32", "profile_image", "")
+        ));
+        stubEmployeeList(mockResponse);
+        employeeService.getAllEmployees();
+
+        Map<String, Object> employeeResponse = new HashMap<>();
+        employeeResponse.put("status", "success");
+        employeeResponse.put("data", Map.of("id", "2", "employee_name", "Jane", "employee_salary", "2000", "employee_age", "40", "profile_image", ""));
+        when(restTemplate.exchange(endsWith("/employee/2"), eq(HttpMethod.GET), isNull(), eq(EmployeeResponse.class)))
+                .thenReturn(new ResponseEntity<>(objectMapper.convertValue(employeeResponse, EmployeeResponse.class), HttpStatus.OK));
+        when(restTemplate.exchange(endsWith("/employee/3"), eq(HttpMethod.GET), isNull(), eq(EmployeeResponse.class)))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found", new HttpHeaders(), null, null));
+
+        List<BulkItemResult> results = employeeService.getEmployeesByIds(List.of("2", "1", "3", "2"));
+
+        assertEquals(List.of("2", "1", "3"), results.stream().map(BulkItemResult::getId).collect(Collectors.toList()));
+        assertEquals(List.of(0, 1, 2), results.stream().map(BulkItemResult::getIndex).collect(Collectors.toList()));
+        assertEquals("Jane", results.get(0).getEmployee().getEmployeeName());
+        assertEquals("Conor", results.get(1).getEmployee().getEmployeeName());
+        assertEquals(BulkItemResult.NOT_FOUND, results.get(2).getStatus());
+        assertNull(results.get(2).getEmployee());
+        verify(restTemplate, never()).exchange(endsWith("/employee/1"), eq(HttpMethod.GET), isNull(), eq(EmployeeResponse.class));
+        verify(restTemplate, times(1)).exchange(endsWith("/employee/2"), eq(HttpMethod.GET), isNull(), eq(EmployeeResponse.class));
+    }
+
+    @Test
+    void testGetEmployeesByIdsReportsRateLimitedIdsAsSuch() {
+        Map<String, Object> mockResponse = new HashMap<>();
+        mockResponse.put("status", "success");
+        mockResponse.put("data", List.of(
+                Map.of("id", "1", "employee_name", "Conor", "employee_salary", "1000", "employee_age", "32", "profile_image", "")
+        ));
+        stubEmployeeList(mockResponse);
+        employeeService.getAllEmployees();
+
+        // Longer than the bulk budget, so the lookup gives up rather than retrying
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Retry-After", "600");
+        when(restTemplate.exchange(endsWith("/employee/3"), eq(HttpMethod.GET), isNull(), eq(EmployeeResponse.class)))
+                .thenThrow(HttpClientErrorException.create(HttpStatus.TOO_MANY_REQUESTS, "Too Many Requests", headers, null, null));
+
+        List<BulkItemResult> results = employeeService.getEmployeesByIds(List.of("1", "3"));
+
+        assertEquals(BulkItemResult.SUCCESS, results.get(0).getStatus());
+        assertEquals("3", results.get(1).getId());
+        assertEquals(1, results.get(1).getIndex());
+        assertEquals(BulkItemResult.RATE_LIMITED, results.get(1).getStatus());
+    }
+
+    @Test
+    void testGetEmployeesByIdsWithoutASnapshotLoadsOneInsteadOfCallingPerId() {
+        Map<String, Object> mockResponse = new HashMap<>();
+        mockResponse.put("status", "success");
+        mockResponse.put("data", List.of(
+                Map.of("id", "1", "employee_name", "Conor", "employee_salary", "1000", "employee_age", "32", "profile_image", ""),
+                Map.of("id", "2", "employee_name", "Jane", "employee_salary", "2000", "employee_age", "40", "profile_image", "")
+        ));
+        stubEmployeeList(mockResponse);
+
+        List<BulkItemResult> results = employeeService.getEmployeesByIds(List.of("1", "2", "3"));
+
+        assertEquals(List.of(BulkItemResult.SUCCESS, BulkItemResult.SUCCESS, BulkItemResult.NOT_FOUND),
+                results.stream().map(BulkItemResult::getStatus).collect(Collectors.toList()));
+        verify(restTemplate, times(1)).execute(anyString(), eq(HttpMethod.GET), any(RequestCallback.class), any(ResponseExtractor.class));
+        verify(restTemplate, never()).exchange(anyString(), eq(HttpMethod.GET), isNull(), eq(EmployeeResponse.class));
+    }
+
+    // Feeds the JSON body through whatever extractor the service hands to RestTemplate.execute
+    @Test
+    void testUpstreamRequestTimeLeavesOutBodyDeserialization() throws Exception {
+        byte[] body = objectMapper.writeValueAsBytes(Map.of("status", "success", "data", List.of(
+                Map.of("id", "1", "employee_name", "Conor", "employee_salary", "1000", "employee_age", "32", "profile_image", ""))));
+        // The headers are in straight away, the body takes a while to arrive
+        InputStream slowBody = new FilterInputStream(new ByteArrayInputStream(body)) {
+            private boolean waited;
+
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                if (!waited) {
+                    waited = true;
+                    try {
+                        Thread.sleep(200);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.read(buffer, offset, length);
+            }
+        };
+        when(restTemplate.execute(anyString(), eq(HttpMethod.GET), any(RequestCallback.class), any(ResponseExtractor.class)))
+                .thenAnswer(invocation -> {
+                    ResponseExtractor<?> extractor = invocation.getArgument(3);
+                    return extractor.extractData(new MockClientHttpResponse(slowBody, HttpStatus.OK));
+                });
+
+        assertEquals(1, employeeService.getAllEmployees().size());
+
+        assertTrue(meterRegistry.get("upstream.deserialization").tag("uri", "/employees").timer().totalTime(TimeUnit.MILLISECONDS) >= 200);
+        assertTrue(meterRegistry.get("upstream.requests").tag("uri", "/employees").timer().totalTime(TimeUnit.MILLISECONDS) < 200);
+    }
+
+    private void stubEmployeeList(Map<String, Object> mockResponse) {
+        when(restTemplate.execute(anyString(), eq(HttpMethod.GET), any(RequestCallback.class), any(ResponseExtractor.class)))
+                .thenAnswer(invocation -> {
+                    ResponseExtractor<?> extractor = invocation.getArgument(3);
+                    return extractor.extractData(new MockClientHttpResponse(objectMapper.writeValueAsBytes(mockResponse), HttpStatus.OK));
+                });
+    }
+
+}
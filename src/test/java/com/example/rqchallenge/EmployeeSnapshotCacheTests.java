@@ -0,0 +1,190 @@
+package com.example.rqchallenge;
+
+import com.example.rqchallenge.config.EmployeeCacheProperties;
+import com.example.rqchallenge.employees.cache.EmployeeSnapshot;
+import com.example.rqchallenge.employees.cache.EmployeeSnapshotCache;
+import com.example.rqchallenge.employees.model.Employee;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmployeeSnapshotCacheTests {
+
+    private final MutableClock clock = new MutableClock();
+    private final AtomicInteger loads = new AtomicInteger();
+    private EmployeeSnapshotCache cache;
+
+    @BeforeEach
+    void setUp() {
+        EmployeeCacheProperties properties = new EmployeeCacheProperties();
+        properties.setTtl(Duration.ofSeconds(10));
+        properties.setMaxStale(Duration.ofSeconds(20));
+        properties.setRefreshInterval(Duration.ZERO);
+        cache = new EmployeeSnapshotCache(countingLoader(() -> List.of(employee("1", "Conor"))), properties, clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cache.close();
+    }
+
+    @Test
+    void testFreshSnapshotIsServedFromMemory() {
+        EmployeeSnapshot first = cache.get().orElseThrow();
+        clock.advance(Duration.ofSeconds(5));
+        EmployeeSnapshot second = cache.get().orElseThrow();
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testStaleSnapshotIsServedWhileRefreshingInBackground() throws Exception {
+        CountDownLatch refreshed = new CountDownLatch(2);
+        EmployeeCacheProperties properties = new EmployeeCacheProperties();
+        properties.setTtl(Duration.ofSeconds(10));
+        properties.setMaxStale(Duration.ofSeconds(20));
+        properties.setRefreshInterval(Duration.ZERO);
+        cache.close();
+        cache = new EmployeeSnapshotCache(() -> {
+            refreshed.countDown();
+            return List.of(employee("1", "Conor"));
+        }, properties, clock);
+
+        EmployeeSnapshot first = cache.get().orElseThrow();
+        clock.advance(Duration.ofSeconds(15));
+        EmployeeSnapshot stale = cache.get().orElseThrow();
+
+        assertSame(first, stale);
+        assertTrue(refreshed.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testExpiredSnapshotIsReloadedSynchronously() {
+        EmployeeSnapshot first = cache.get().orElseThrow();
+        clock.advance(Duration.ofSeconds(40));
+        EmployeeSnapshot second = cache.get().orElseThrow();
+
+        assertNotSame(first, second);
+        assertTrue(second.getVersion() > first.getVersion());
+    }
+
+    @Test
+    void testFailedReloadKeepsLastGoodSnapshot() {
+        AtomicReference<List<Employee>> response = new AtomicReference<>(List.of(employee("1", "Conor")));
+        cache.close();
+        EmployeeCacheProperties properties = new EmployeeCacheProperties();
+        properties.setTtl(Duration.ofSeconds(10));
+        properties.setMaxStale(Duration.ZERO);
+        properties.setRefreshInterval(Duration.ZERO);
+        cache = new EmployeeSnapshotCache(response::get, properties, clock);
+
+        EmployeeSnapshot first = cache.get().orElseThrow();
+        response.set(null);
+        clock.advance(Duration.ofSeconds(40));
+
+        assertSame(first, cache.get().orElseThrow());
+    }
+
+    @Test
+    void testLocalChangesSurviveRefreshesUntilUpstreamShowsThem() {
+        cache.get().orElseThrow();
+        cache.applyCreate(employee("2", "Jane Doe"));
+        cache.applyDelete("1");
+
+        EmployeeSnapshot written = cache.peek().orElseThrow();
+        assertEquals(1, written.search("jane", 10).size());
+        assertEquals("2", written.page(10, null).getData().get(0).getId());
+        assertEquals(2, written.getRevision());
+
+        // The upstream has not caught up yet, both changes are replayed
+        EmployeeSnapshot lagging = cache.update(List.of(employee("1", "Conor")));
+        assertTrue(lagging.find("1").isEmpty());
+        assertTrue(lagging.find("2").isPresent());
+
+        // Once it has, nothing is left to replay and its list is taken as is
+        cache.update(List.of(employee("2", "Jane Doe")));
+        EmployeeSnapshot settled = cache.update(List.of(employee("1", "Conor")));
+        assertTrue(settled.find("1").isPresent());
+        assertTrue(settled.find("2").isEmpty());
+    }
+
+    @Test
+    void testLocalChangesExpireAfterRetention() {
+        cache.get().orElseThrow();
+        cache.applyCreate(employee("2", "Jane Doe"));
+        clock.advance(new EmployeeCacheProperties().getJournalRetention().plusSeconds(1));
+
+        assertTrue(cache.update(List.of(employee("1", "Conor"))).find("2").isEmpty());
+    }
+
+    @Test
+    void testSnapshotIsPrefetchedBeforeItExpires() throws Exception {
+        EmployeeCacheProperties properties = new EmployeeCacheProperties();
+        properties.setTtl(Duration.ofSeconds(10));
+        properties.setMaxStale(Duration.ofSeconds(20));
+        properties.setRefreshInterval(Duration.ofMillis(50));
+        properties.setIdleRefreshInterval(Duration.ofMillis(50));
+        cache.close();
+        cache = new EmployeeSnapshotCache(countingLoader(() -> List.of(employee("1", "Conor"))), properties, clock);
+
+        EmployeeSnapshot first = cache.get().orElseThrow();
+        clock.advance(Duration.ofSeconds(5));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (cache.peek().orElseThrow() == first && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        // Reloaded by the prefetch, not by a read
+        assertNotSame(first, cache.getIfPresent().orElseThrow());
+        assertEquals(2, loads.get());
+    }
+
+    private Supplier<List<Employee>> countingLoader(Supplier<List<Employee>> delegate) {
+        return () -> {
+            loads.incrementAndGet();
+            return delegate.get();
+        };
+    }
+
+    private static Employee employee(String id, String name) {
+        return new Employee(id, name, "1000", "30", "");
+    }
+
+    private static class MutableClock extends Clock {
+        private volatile Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
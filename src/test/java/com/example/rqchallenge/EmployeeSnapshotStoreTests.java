@@ -0,0 +1,80 @@
+package com.example.rqchallenge;
+
+import com.example.rqchallenge.config.EmployeeCacheProperties;
+import com.example.rqchallenge.employees.cache.EmployeeSnapshot;
+import com.example.rqchallenge.employees.cache.EmployeeSnapshotCache;
+import com.example.rqchallenge.employees.cache.EmployeeSnapshotStore;
+import com.example.rqchallenge.employees.model.Employee;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmployeeSnapshotStoreTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testSavedSnapshotLoadsBack() {
+        EmployeeSnapshotStore store = new EmployeeSnapshotStore(directory.resolve("employees.snapshot"));
+        Instant savedAt = Instant.parse("2024-01-01T00:00:00Z");
+        store.save(new EmployeeSnapshot(1, savedAt, List.of(
+                new Employee("1", "Tiger Nixon", "320800", "61", ""),
+                new Employee("2", "Garrett Winters", null, "63", ""),
+                new Employee("3", "Ashton Cox", "86,000", "1e2", "")
+        )), savedAt);
+
+        Optional<EmployeeSnapshotStore.Stored> stored = store.load();
+
+        assertTrue(stored.isPresent());
+        assertEquals(savedAt, stored.get().getSavedAt());
+        List<Employee> employees = stored.get().getEmployees();
+        assertEquals(3, employees.size());
+        assertEquals("Tiger Nixon", employees.get(0).getEmployeeName());
+        assertEquals("320800", employees.get(0).getSalary());
+        assertNull(employees.get(1).getSalary());
+        assertEquals("63", employees.get(1).getAge());
+        assertEquals("86,000", employees.get(2).getSalary());
+        assertEquals("1e2", employees.get(2).getAge());
+    }
+
+    @Test
+    void testCorruptFileIsIgnored() throws Exception {
+        Path file = directory.resolve("employees.snapshot");
+        EmployeeSnapshotStore store = new EmployeeSnapshotStore(file);
+        store.save(new EmployeeSnapshot(1, Instant.now(), List.of(new Employee("1", "Tiger Nixon", "320800", "61", ""))), Instant.now());
+
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 0x7F;
+        Files.write(file, bytes);
+
+        assertTrue(store.load().isEmpty());
+        assertTrue(new EmployeeSnapshotStore(directory.resolve("missing.snapshot")).load().isEmpty());
+    }
+
+    @Test
+    void testCacheRestoresFromFileWithoutCallingUpstream() {
+        EmployeeCacheProperties properties = new EmployeeCacheProperties();
+        properties.setSnapshotFile(directory.resolve("employees.snapshot"));
+        properties.setSnapshotFileMaxAge(Duration.ofHours(1));
+        new EmployeeSnapshotStore(properties.getSnapshotFile())
+                .save(new EmployeeSnapshot(1, Instant.now(), List.of(new Employee("1", "Tiger Nixon", "320800", "61", ""))), Instant.now());
+
+        EmployeeSnapshotCache cache = new EmployeeSnapshotCache(() -> {
+            throw new IllegalStateException("upstream down");
+        }, properties);
+
+        assertTrue(cache.restore());
+        assertEquals(1, cache.getIfPresent().orElseThrow().size());
+        assertFalse(cache.restore());
+        cache.close();
+    }
+}
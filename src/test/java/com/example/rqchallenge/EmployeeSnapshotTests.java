@@ -0,0 +1,131 @@
+package com.example.rqchallenge;
+
+import com.example.rqchallenge.employees.cache.EmployeeSnapshot;
+import com.example.rqchallenge.employees.model.CachedJsonList;
+import com.example.rqchallenge.employees.model.CountBand;
+import com.example.rqchallenge.employees.model.Employee;
+import com.example.rqchallenge.employees.model.EmployeeAnalytics;
+import com.example.rqchallenge.employees.model.EmployeePage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmployeeSnapshotTests {
+
+    private final EmployeeSnapshot snapshot = new EmployeeSnapshot(1, Instant.now(), List.of(
+            employee("10"), employee("2"), employee("1"), employee("3"), employee("25")
+    ));
+
+    @Test
+    void testPagesFollowNumericIdOrder() {
+        EmployeePage first = snapshot.page(2, null);
+        assertEquals(List.of("1", "2"), ids(first));
+        assertEquals("2", first.getNext());
+
+        EmployeePage second = snapshot.page(2, first.getNext());
+        assertEquals(List.of("3", "10"), ids(second));
+        assertEquals("10", second.getNext());
+
+        EmployeePage last = snapshot.page(2, second.getNext());
+        assertEquals(List.of("25"), ids(last));
+        assertNull(last.getNext());
+    }
+
+    @Test
+    void testCursorSurvivesDeletedEmployee() {
+        // "4" no longer exists, the next page starts at the first id after it
+        assertEquals(List.of("10", "25"), ids(snapshot.page(5, "4")));
+    }
+
+    @Test
+    void testCursorPastTheEndReturnsEmptyPage() {
+        EmployeePage page = snapshot.page(5, "99");
+
+        assertTrue(page.getData().isEmpty());
+        assertNull(page.getNext());
+    }
+
+    private static List<String> ids(EmployeePage page) {
+        return page.getData().stream().map(Employee::getId).collect(Collectors.toList());
+    }
+
+    @Test
+    void testETagFollowsContentNotVersion() {
+        EmployeeSnapshot reloaded = new EmployeeSnapshot(2, Instant.now(), List.of(
+                employee("10"), employee("2"), employee("1"), employee("3"), employee("25")
+        ));
+        assertEquals(snapshot.getETag(), reloaded.getETag());
+
+        reloaded.addEmployee(employee("26"));
+        String afterCreate = reloaded.getETag();
+        assertNotEquals(snapshot.getETag(), afterCreate);
+
+        reloaded.removeEmployee("26");
+        assertNotEquals(afterCreate, reloaded.getETag());
+    }
+
+    @Test
+    void testETagCoversSalariesThatAreNotInts() {
+        EmployeeSnapshot withComma = new EmployeeSnapshot(1, Instant.now(), List.of(new Employee("1", "A", "320,800", "61", "")));
+        EmployeeSnapshot withText = new EmployeeSnapshot(1, Instant.now(), List.of(new Employee("1", "A", "n/a", "61", "")));
+
+        assertNotEquals(withComma.getETag(), withText.getETag());
+        assertEquals("320,800", withComma.getEmployees().get(0).getSalary());
+    }
+
+    @Test
+    void testAnalyticsFollowCreatesAndDeletes() {
+        EmployeeSnapshot people = new EmployeeSnapshot(1, Instant.now(), List.of(
+                new Employee("1", "A", "100", "25", ""),
+                new Employee("2", "B", "200", "35", ""),
+                new Employee("3", "C", "300", null, "")
+        ));
+
+        EmployeeAnalytics analytics = people.analytics(new int[]{150, 250}, new int[]{30});
+        assertEquals(200.0, analytics.getAverageSalary());
+        assertEquals(200, analytics.getMedianSalary());
+        assertEquals(List.of(1, 1, 1), counts(analytics.getSalaryHistogram()));
+        assertEquals(30.0, analytics.getAverageAge());
+        assertEquals(List.of(1, 1), counts(analytics.getAgeBands()));
+
+        people.removeEmployee("3");
+        people.addEmployee(new Employee("4", "D", "120", "45", ""));
+        analytics = people.analytics(new int[]{150, 250}, new int[]{30});
+        assertEquals(3, analytics.getEmployeeCount());
+        assertEquals(140.0, analytics.getAverageSalary());
+        assertEquals(200, analytics.getHighestSalary());
+        assertEquals(List.of(2, 1, 0), counts(analytics.getSalaryHistogram()));
+        assertEquals(List.of(1, 2), counts(analytics.getAgeBands()));
+    }
+
+    @Test
+    void testResultListsAreSharedUntilContentChanges() throws Exception {
+        EmployeeSnapshot people = new EmployeeSnapshot(1, Instant.now(), List.of(employee("1"), employee("2")));
+        ObjectWriter writer = new ObjectMapper().writer();
+
+        List<Employee> employees = people.getEmployees();
+        assertSame(employees, people.getEmployees());
+        assertSame(people.topEarnerNames(10), people.topEarnerNames(10));
+        byte[] json = ((CachedJsonList<Employee>) employees).json(writer);
+        assertSame(json, ((CachedJsonList<Employee>) employees).json(writer));
+        assertEquals(2, new ObjectMapper().readTree(json).size());
+
+        people.removeEmployee("1");
+        assertNotSame(employees, people.getEmployees());
+        assertEquals(1, people.getEmployees().size());
+    }
+
+    private static List<Integer> counts(List<CountBand> bands) {
+        return bands.stream().map(CountBand::getCount).collect(Collectors.toList());
+    }
+
+    private static Employee employee(String id) {
+        return new Employee(id, "Employee " + id, "1000", "30", "");
+    }
+}
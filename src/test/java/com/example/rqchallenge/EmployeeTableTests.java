@@ -0,0 +1,72 @@
+package com.example.rqchallenge;
+
+import com.example.rqchallenge.employees.index.EmployeeTable;
+import com.example.rqchallenge.employees.model.Employee;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmployeeTableTests {
+
+    @Test
+    void testColumnsRoundTripToEmployees() {
+        EmployeeTable table = EmployeeTable.of(List.of(
+                new Employee("1", "Tiger Nixon", "320800", "61", ""),
+                new Employee("2", "Garrett Winters", "n/a", null, "")
+        ));
+
+        assertEquals(2, table.size());
+        assertEquals(320800, table.salary(table.rowOf("1")));
+        assertFalse(table.hasSalary(table.rowOf("2")));
+        assertFalse(table.hasAge(table.rowOf("2")));
+
+        Employee tiger = table.employee(table.rowOf("1"));
+        assertEquals("Tiger Nixon", tiger.getEmployeeName());
+        assertEquals("320800", tiger.getSalary());
+        assertEquals("61", tiger.getAge());
+        assertEquals("n/a", table.employee(table.rowOf("2")).getSalary());
+        assertNull(table.employee(table.rowOf("2")).getAge());
+    }
+
+    @Test
+    void testValuesThatAreNotPlainIntsComeBackAsSent() {
+        EmployeeTable table = EmployeeTable.of(List.of(
+                new Employee("1", "Tiger Nixon", "320,800", "1e2", ""),
+                new Employee("2", "Garrett Winters", "3000000000", " 63", ""),
+                new Employee("3", "Ashton Cox", "-0", "007", "")
+        ));
+
+        assertFalse(table.hasSalary(table.rowOf("1")));
+        assertFalse(table.hasSalary(table.rowOf("2")));
+        assertEquals(63, table.age(table.rowOf("2")));
+        assertEquals(0, table.salary(table.rowOf("3")));
+
+        assertEquals("320,800", table.employee(table.rowOf("1")).getSalary());
+        assertEquals("1e2", table.employee(table.rowOf("1")).getAge());
+        assertEquals("3000000000", table.employee(table.rowOf("2")).getSalary());
+        assertEquals(" 63", table.employee(table.rowOf("2")).getAge());
+        assertEquals("-0", table.employee(table.rowOf("3")).getSalary());
+        assertEquals("007", table.employee(table.rowOf("3")).getAge());
+    }
+
+    @Test
+    void testDeleteTombstonesRowAndAppendReplacesId() {
+        EmployeeTable table = EmployeeTable.of(List.of(
+                new Employee("1", "A", "100", "30", ""),
+                new Employee("2", "B", "200", "30", "")
+        ));
+
+        int row = table.delete("1");
+        assertFalse(table.isLive(row));
+        assertEquals(-1, table.delete("1"));
+
+        int replaced = table.rowOf("2");
+        int fresh = table.append(new Employee("2", "B", "250", "31", ""));
+        assertFalse(table.isLive(replaced));
+        assertTrue(table.isLive(fresh));
+        assertEquals(1, table.size());
+        assertEquals("250", table.liveEmployees().get(0).getSalary());
+    }
+}
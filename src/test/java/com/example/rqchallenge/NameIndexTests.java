@@ -0,0 +1,67 @@
+package com.example.rqchallenge;
+
+import com.example.rqchallenge.employees.index.EmployeeTable;
+import com.example.rqchallenge.employees.index.NameIndex;
+import com.example.rqchallenge.employees.model.Employee;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NameIndexTests {
+
+    private final EmployeeTable table = EmployeeTable.of(List.of(
+            employee("1", "Tiger Nixon"),
+            employee("2", "Garrett Winters"),
+            employee("3", "Ashton Cox"),
+            employee("4", "Cox"),
+            employee("5", "Coxon Smith"),
+            employee("6", "Timothy Mooney")
+    ));
+    private final NameIndex index = NameIndex.build(table);
+
+    @Test
+    void testSubstringSearchIsCaseInsensitive() {
+        assertEquals(List.of("Tiger Nixon"), names(index.search("NIXON", 10)));
+        assertEquals(List.of("Garrett Winters"), names(index.search("rret", 10)));
+    }
+
+    @Test
+    void testResultsAreRankedByMatchQuality() {
+        // exact, then prefix, then start of a later word
+        assertEquals(List.of("Cox", "Coxon Smith", "Ashton Cox"), names(index.search("cox", 10)));
+    }
+
+    @Test
+    void testLimitIsApplied() {
+        assertEquals(List.of("Cox", "Coxon Smith"), names(index.search("cox", 2)));
+    }
+
+    @Test
+    void testShortQueriesFallBackToScan() {
+        assertEquals(List.of("Tiger Nixon", "Timothy Mooney"), names(index.search("ti", 10)));
+    }
+
+    @Test
+    void testNoMatch() {
+        assertEquals(0, index.search("zzz", 10).length);
+        assertEquals(0, index.search("", 10).length);
+    }
+
+    @Test
+    void testDeletedRowsAreSkipped() {
+        table.delete("4");
+        assertEquals(List.of("Coxon Smith", "Ashton Cox"), names(index.search("cox", 10)));
+    }
+
+    private List<String> names(int[] rows) {
+        return Arrays.stream(rows).mapToObj(table::name).collect(Collectors.toList());
+    }
+
+    private static Employee employee(String id, String name) {
+        return new Employee(id, name, "1000", "30", "");
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.rqchallenge;
+
+import com.example.rqchallenge.config.EmployeeCacheProperties;
+import com.example.rqchallenge.config.RateLimitProperties;
+import com.example.rqchallenge.employees.cache.PrefetchPolicy;
+import com.example.rqchallenge.employees.upstream.UpstreamRateLimiter;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrefetchPolicyTests {
+
+    @Test
+    void testReadSnapshotIsRefreshedInsideTtl() {
+        EmployeeCacheProperties properties = properties();
+        properties.setTtl(Duration.ofSeconds(30));
+
+        // 30s stretched by the full 20% would overrun the ttl, so the interval shrinks to fit
+        assertEquals(Duration.ofSeconds(30), new PrefetchPolicy(properties, null, () -> 1.0).nextDelay(true, 0));
+    }
+
+    @Test
+    void testUnreadSnapshotIsOnlyKeptServable() {
+        PrefetchPolicy policy = new PrefetchPolicy(properties(), null, () -> 0.5);
+
+        assertEquals(Duration.ofMinutes(2), policy.nextDelay(false, 0));
+    }
+
+    @Test
+    void testDelaysAreJitteredBothWays() {
+        assertEquals(Duration.ofSeconds(24), new PrefetchPolicy(properties(), null, () -> 0.0).nextDelay(true, 0));
+        assertEquals(Duration.ofSeconds(36), new PrefetchPolicy(properties(), null, () -> 1.0).nextDelay(true, 0));
+    }
+
+    @Test
+    void testFailuresBackOffUpToIdleInterval() {
+        PrefetchPolicy policy = new PrefetchPolicy(properties(), null, () -> 0.5);
+
+        assertEquals(Duration.ofMinutes(1), policy.nextDelay(true, 1));
+        assertEquals(Duration.ofMinutes(2), policy.nextDelay(true, 10));
+    }
+
+    @Test
+    void testRefreshesKeepToTheirShareOfTheUpstreamBudget() {
+        RateLimitProperties rateLimits = new RateLimitProperties();
+        rateLimits.setInitialRate(0.2);
+        UpstreamRateLimiter limiter = new UpstreamRateLimiter(rateLimits);
+
+        // A tenth of 0.2 requests a second leaves one background refresh every 50s
+        assertEquals(Duration.ofSeconds(50), new PrefetchPolicy(properties(), limiter, () -> 0.0).nextDelay(true, 0));
+    }
+
+    @Test
+    void testRetryAfterPostponesRefresh() {
+        UpstreamRateLimiter limiter = new UpstreamRateLimiter(new RateLimitProperties());
+        limiter.onRateLimited("120");
+
+        Duration delay = new PrefetchPolicy(properties(), limiter, () -> 0.0).nextDelay(true, 0);
+
+        assertTrue(delay.compareTo(Duration.ofSeconds(119)) > 0);
+    }
+
+    private static EmployeeCacheProperties properties() {
+        EmployeeCacheProperties properties = new EmployeeCacheProperties();
+        properties.setTtl(Duration.ofMinutes(1));
+        properties.setMaxStale(Duration.ofMinutes(5));
+        properties.setRefreshInterval(Duration.ofSeconds(30));
+        properties.setIdleRefreshInterval(Duration.ofMinutes(2));
+        properties.setRefreshJitter(0.2);
+        return properties;
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.rqchallenge;
+
+import com.example.rqchallenge.employees.index.EmployeeTable;
+import com.example.rqchallenge.employees.index.PrefixIndex;
+import com.example.rqchallenge.employees.model.Employee;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrefixIndexTests {
+
+    private final EmployeeTable table = EmployeeTable.of(List.of(
+            employee("1", "Tiger Nixon"),
+            employee("2", "Garrett Winters"),
+            employee("3", "Ashton Cox"),
+            employee("4", "Cox"),
+            employee("5", "Coxon Smith"),
+            employee("6", "Timothy  Mooney")
+    ));
+    private final PrefixIndex index = PrefixIndex.build(table);
+
+    @Test
+    void testPrefixOfAnyWordMatches() {
+        assertEquals(List.of("Tiger Nixon"), names(index.complete("NIX", 10)));
+        assertEquals(List.of("Timothy  Mooney"), names(index.complete("moo", 10)));
+        assertEquals(List.of(), names(index.complete("ixon", 10)));
+    }
+
+    @Test
+    void testResultsAreRankedByMatchQuality() {
+        // exact, then start of the name, then start of a later word
+        assertEquals(List.of("Cox", "Coxon Smith", "Ashton Cox"), names(index.complete("cox", 10)));
+        assertEquals(List.of("Cox", "Coxon Smith"), names(index.complete("cox", 2)));
+    }
+
+    @Test
+    void testPrefixMaySpanWords() {
+        assertEquals(List.of("Timothy  Mooney"), names(index.complete("timothy mo", 10)));
+        assertEquals(List.of(), names(index.complete("timothy x", 10)));
+    }
+
+    @Test
+    void testAddedAndDeletedRowsAreFollowed() {
+        int row = table.append(employee("7", "Coxwell Jones"));
+        index.add(row);
+        table.delete("4");
+
+        assertEquals(List.of("Coxon Smith", "Coxwell Jones", "Ashton Cox"), names(index.complete("cox", 10)));
+    }
+
+    @Test
+    void testEachRowIsReturnedOnce() {
+        int row = table.append(employee("7", "Anna Annabel"));
+        index.add(row);
+
+        assertArrayEquals(new int[]{row}, index.complete("ann", 10));
+    }
+
+    @Test
+    void testEmptyPrefix() {
+        assertEquals(0, index.complete(" ", 10).length);
+        assertEquals(0, index.complete("\u3000\u2003", 10).length);
+    }
+
+    @Test
+    void testUnicodeSpacesAroundNamesAreIgnored() {
+        PrefixIndex spaced = PrefixIndex.build(EmployeeTable.of(List.of(
+                employee("1", "\u2003Zoe\u3000 Ball\u3000"),
+                employee("2", "\u3000"))));
+
+        assertArrayEquals(new int[]{0}, spaced.complete("\u3000zoe b", 10));
+        assertArrayEquals(new int[]{0}, spaced.complete("ball", 10));
+    }
+
+    private List<String> names(int[] rows) {
+        return Arrays.stream(rows).mapToObj(table::name).collect(Collectors.toList());
+    }
+
+    private static Employee employee(String id, String name) {
+        return new Employee(id, name, "1000", "30", "");
+    }
+}
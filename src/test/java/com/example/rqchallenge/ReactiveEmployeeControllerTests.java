@@ -0,0 +1,48 @@
+package com.example.rqchallenge;
+
+import com.example.rqchallenge.config.BulkProperties;
+import com.example.rqchallenge.config.ThreadingProperties;
+import com.example.rqchallenge.employees.controller.ReactiveEmployeeController;
+import com.example.rqchallenge.employees.model.Employee;
+import com.example.rqchallenge.employees.service.ReactiveEmployeeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReactiveEmployeeControllerTests {
+
+    @Mock
+    private ReactiveEmployeeService employeeService;
+
+    private ReactiveEmployeeController controller;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ThreadingProperties threadingProperties = new ThreadingProperties();
+        threadingProperties.setRequestTimeout(Duration.ofMillis(50));
+        controller = new ReactiveEmployeeController(employeeService, new BulkProperties(), threadingProperties);
+    }
+
+    @Test
+    void testReadStillWaitingAfterItsTimeoutGetsGatewayTimeout() {
+        when(employeeService.getEmployeeByID("1")).thenReturn(Mono.never());
+        when(employeeService.getEmployeesByNameSearch("conor", Integer.MAX_VALUE)).thenReturn(Mono.never());
+
+        ResponseEntity<Employee> employee = controller.getEmployeeById("1").block(Duration.ofSeconds(5));
+        ResponseEntity<List<Employee>> matches = controller.getEmployeesByNameSearch("conor", null).block(Duration.ofSeconds(5));
+
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, employee.getStatusCode());
+        assertEquals(HttpStatus.GATEWAY_TIMEOUT, matches.getStatusCode());
+    }
+}
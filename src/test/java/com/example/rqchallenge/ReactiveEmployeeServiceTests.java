@@ -0,0 +1,157 @@
+package com.example.rqchallenge;
+
+import com.example.rqchallenge.config.BulkProperties;
+import com.example.rqchallenge.config.EmployeeCacheProperties;
+import com.example.rqchallenge.config.RateLimitProperties;
+import com.example.rqchallenge.config.ResilienceProperties;
+import com.example.rqchallenge.employees.model.BulkItemResult;
+import com.example.rqchallenge.employees.model.Employee;
+import com.example.rqchallenge.employees.service.ReactiveEmployeeService;
+import com.example.rqchallenge.employees.upstream.UpstreamIsolation;
+import com.example.rqchallenge.employees.upstream.UpstreamRateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReactiveEmployeeServiceTests {
+
+    private static final String EMPLOYEES = "{\"status\":\"success\",\"data\":["
+            + "{\"id\":\"1\",\"employee_name\":\"Conor\",\"employee_salary\":\"1000000\",\"employee_age\":\"32\",\"profile_image\":\"\"},"
+            + "{\"id\":\"2\",\"employee_name\":\"John Doe\",\"employee_salary\":\"10000\",\"employee_age\":\"29\",\"profile_image\":\"\"}]}";
+
+    private final Deque<ClientResponse> responses = new ArrayDeque<>();
+    private final AtomicInteger calls = new AtomicInteger();
+    private final BulkProperties bulkProperties = new BulkProperties();
+    private ReactiveEmployeeService employeeService;
+
+    @AfterEach
+    void tearDown() {
+        if (employeeService != null) {
+            employeeService.close();
+        }
+    }
+
+    @Test
+    void testReadsShareOneUpstreamFetch() {
+        responses.add(json(HttpStatus.OK, EMPLOYEES));
+        employeeService = service();
+
+        List<Employee> employees = employeeService.getAllEmployees().block();
+        Integer highestSalary = employeeService.getHighestSalaryOfEmployees().block();
+        List<Employee> matches = employeeService.getEmployeesByNameSearch("doe", 10).block();
+
+        assertEquals(2, employees.size());
+        assertEquals(1000000, highestSalary);
+        assertEquals("John Doe", matches.get(0).getEmployeeName());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void testRateLimitedFetchIsRetriedAfterRetryAfter() {
+        responses.add(ClientResponse.create(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "0").build());
+        responses.add(json(HttpStatus.OK, EMPLOYEES));
+        employeeService = service();
+
+        List<String> topEarners = employeeService.getTopHighestEarningEmployeeNames(1).block();
+
+        assertEquals(List.of("Conor"), topEarners);
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void testDeleteMapsNotFound() {
+        responses.add(ClientResponse.create(HttpStatus.NOT_FOUND).build());
+        employeeService = service();
+
+        assertEquals("Employee not found", employeeService.deleteEmployeeById("42").block());
+    }
+
+    @Test
+    void testBulkResultsReportRateLimitsTheSameForCreatesAndDeletes() {
+        // Longer than the bulk budget: the create gives up, and the delete is refused budget without a call
+        responses.add(ClientResponse.create(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "600").build());
+        employeeService = service();
+
+        List<BulkItemResult> created = employeeService.createEmployees(List.of(Map.of("name", "Conor"))).block();
+        List<BulkItemResult> deleted = employeeService.deleteEmployeesById(List.of("1")).block();
+
+        assertEquals(BulkItemResult.RATE_LIMITED, created.get(0).getStatus());
+        assertEquals(BulkItemResult.RATE_LIMITED, deleted.get(0).getStatus());
+        assertEquals("1", deleted.get(0).getId());
+    }
+
+    @Test
+    void testBulkDeleteKeepsRequestOrder() {
+        responses.add(json(HttpStatus.OK, "{\"status\":\"success\",\"message\":\"Successfully deleted employee\"}"));
+        responses.add(ClientResponse.create(HttpStatus.NOT_FOUND).build());
+        bulkProperties.setParallelism(1);
+        employeeService = service();
+
+        List<BulkItemResult> deleted = employeeService.deleteEmployeesById(List.of("1", "2")).block();
+
+        assertEquals(List.of(0, 1), List.of(deleted.get(0).getIndex(), deleted.get(1).getIndex()));
+        assertEquals(BulkItemResult.SUCCESS, deleted.get(0).getStatus());
+        assertEquals(BulkItemResult.NOT_FOUND, deleted.get(1).getStatus());
+    }
+
+    @Test
+    void testLookupLoadsTheSnapshotOnceAndReportsEachDistinctId() {
+        responses.add(json(HttpStatus.OK, EMPLOYEES));
+        employeeService = service();
+
+        List<BulkItemResult> found = employeeService.getEmployeesByIds(List.of("2", "9", "2", "1")).block();
+
+        assertEquals(1, calls.get());
+        assertEquals(List.of("2", "9", "1"), found.stream().map(BulkItemResult::getId).collect(Collectors.toList()));
+        assertEquals(List.of(0, 1, 3), found.stream().map(BulkItemResult::getIndex).collect(Collectors.toList()));
+        assertEquals(List.of(BulkItemResult.SUCCESS, BulkItemResult.NOT_FOUND, BulkItemResult.SUCCESS),
+                found.stream().map(BulkItemResult::getStatus).collect(Collectors.toList()));
+        assertEquals("John Doe", found.get(0).getEmployee().getEmployeeName());
+    }
+
+    @Test
+    void testLookupOfOneIdAsksTheUpstreamForIt() {
+        responses.add(ClientResponse.create(HttpStatus.NOT_FOUND).build());
+        employeeService = service();
+
+        List<BulkItemResult> found = employeeService.getEmployeesByIds(List.of("42")).block();
+
+        assertEquals(1, calls.get());
+        assertEquals(BulkItemResult.NOT_FOUND, found.get(0).getStatus());
+        assertEquals("42", found.get(0).getId());
+    }
+
+    private ReactiveEmployeeService service() {
+        WebClient webClient = WebClient.builder()
+                .baseUrl("http://upstream")
+                .exchangeFunction(request -> {
+                    calls.incrementAndGet();
+                    return Mono.just(responses.poll());
+                })
+                .build();
+        return new ReactiveEmployeeService(webClient, new EmployeeCacheProperties(), new UpstreamRateLimiter(new RateLimitProperties()),
+                new UpstreamIsolation(new ResilienceProperties()), bulkProperties, new SimpleMeterRegistry());
+    }
+
+    private static ClientResponse json(HttpStatus status, String body) {
+        return ClientResponse.create(status)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(body)
+                .build();
+    }
+}
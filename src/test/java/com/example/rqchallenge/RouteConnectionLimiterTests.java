@@ -0,0 +1,90 @@
+package com.example.rqchallenge;
+
+import com.example.rqchallenge.config.Config;
+import com.example.rqchallenge.config.UpstreamHttpProperties;
+import com.sun.net.httpserver.HttpServer;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteConnectionLimiterTests {
+
+    private HttpServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 16);
+        server.createContext("/", exchange -> {
+            byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void testPermitIsHeldUntilTheBodyIsClosed() throws Exception {
+        OkHttpClient client = client(Duration.ofMillis(300));
+
+        Response first = client.newCall(request()).execute();
+        assertThrows(InterruptedIOException.class, () -> client.newCall(request()).execute());
+
+        first.close();
+        try (Response second = client.newCall(request()).execute()) {
+            assertEquals("ok", second.body().string());
+        }
+    }
+
+    @Test
+    void testZeroCallTimeoutWaitsForAPermit() throws Exception {
+        OkHttpClient client = client(Duration.ZERO);
+
+        Response first = client.newCall(request()).execute();
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> {
+            try (Response response = client.newCall(request()).execute()) {
+                return response.body().string();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        Thread.sleep(200);
+        assertFalse(second.isDone());
+
+        first.close();
+        assertEquals("ok", second.get(5, TimeUnit.SECONDS));
+    }
+
+    // One connection per route, waiting for it at most the call timeout
+    private OkHttpClient client(Duration callTimeout) {
+        UpstreamHttpProperties properties = new UpstreamHttpProperties();
+        properties.setMaxConnectionsPerRoute(1);
+        properties.setCallTimeout(callTimeout);
+        return new Config().upstreamHttpClient(properties);
+    }
+
+    private Request request() {
+        return new Request.Builder().url("http://127.0.0.1:" + server.getAddress().getPort() + "/").build();
+    }
+}
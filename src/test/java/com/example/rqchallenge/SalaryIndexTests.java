@@ -0,0 +1,94 @@
+package com.example.rqchallenge;
+
+import com.example.rqchallenge.employees.index.EmployeeTable;
+import com.example.rqchallenge.employees.index.SalaryIndex;
+import com.example.rqchallenge.employees.model.Employee;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SalaryIndexTests {
+
+    @Test
+    void testHighestSalaryAndTopEarners() {
+        EmployeeTable table = EmployeeTable.of(List.of(
+                employee("1", "Low", "100"),
+                employee("2", "High", "300"),
+                employee("3", "Mid", "200")
+        ));
+        SalaryIndex index = SalaryIndex.build(table);
+
+        assertEquals(300, index.highestSalary());
+        assertEquals(List.of("High", "Mid"), names(table, index.topRows(2)));
+        assertEquals(3, index.topRows(50).length);
+    }
+
+    @Test
+    void testUnparseableSalariesAreSkipped() {
+        SalaryIndex index = SalaryIndex.build(EmployeeTable.of(List.of(
+                employee("1", "Valid", "100"),
+                employee("2", "Broken", "n/a"),
+                employee("3", "Missing", null)
+        )));
+
+        assertEquals(1, index.size());
+        assertEquals(100, index.highestSalary());
+    }
+
+    @Test
+    void testAddAndRemoveKeepOrdering() {
+        EmployeeTable table = EmployeeTable.of(List.of(
+                employee("1", "A", "100"),
+                employee("2", "B", "300")
+        ));
+        SalaryIndex index = SalaryIndex.build(table);
+
+        index.add(table.append(employee("3", "C", "200")));
+        int top = table.append(employee("4", "D", "500"));
+        index.add(top);
+        assertEquals(500, index.highestSalary());
+        assertEquals(List.of("D", "B", "C", "A"), names(table, index.topRows(10)));
+
+        assertTrue(index.remove(top));
+        assertFalse(index.remove(top));
+        assertEquals(300, index.highestSalary());
+        assertEquals(List.of("B", "C", "A"), names(table, index.topRows(10)));
+    }
+
+    @Test
+    void testEmptyIndex() {
+        SalaryIndex index = SalaryIndex.build(EmployeeTable.of(List.of()));
+
+        assertEquals(0, index.highestSalary());
+        assertEquals(0, index.topRows(10).length);
+    }
+
+    @Test
+    void testQuantilesAndCountsFollowSalaryOrder() {
+        Employee[] employees = new Employee[100];
+        for (int i = 0; i < employees.length; i++) {
+            employees[i] = employee(Integer.toString(i), "E" + i, Integer.toString((i + 1) * 10));
+        }
+        SalaryIndex index = SalaryIndex.build(EmployeeTable.of(Arrays.asList(employees)));
+
+        assertEquals(500, index.salaryAtQuantile(0.5));
+        assertEquals(900, index.salaryAtQuantile(0.9));
+        assertEquals(990, index.salaryAtQuantile(0.99));
+        assertEquals(10, index.lowestSalary());
+        assertEquals(100, index.countAtLeast(10));
+        assertEquals(51, index.countAtLeast(500));
+        assertEquals(0, index.countAtLeast(1001));
+    }
+
+    private static List<String> names(EmployeeTable table, int[] rows) {
+        return Arrays.stream(rows).mapToObj(table::name).collect(Collectors.toList());
+    }
+
+    private static Employee employee(String id, String name, String salary) {
+        return new Employee(id, name, salary, "30", "");
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.rqchallenge;
+
+import com.example.rqchallenge.employees.upstream.SingleFlight;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTests {
+
+    private final SingleFlight<String, String> flight = new SingleFlight<>();
+
+    @Test
+    void testConcurrentCallsForSameKeyShareOneExecution() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> flight.execute("employees", () -> {
+                    calls.incrementAndGet();
+                    await(release);
+                    return "result";
+                })));
+            }
+            // Give every caller time to join the flight before letting it finish
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("result", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, calls.get());
+            assertEquals(0, flight.inFlightCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testFailureIsSharedAndNotCached() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> first = executor.submit(() -> flight.execute("1", () -> {
+                await(release);
+                throw new IllegalStateException("upstream down");
+            }));
+            Thread.sleep(50);
+            Future<String> second = executor.submit(() -> flight.execute("1", () -> "not called"));
+            Thread.sleep(50);
+            release.countDown();
+
+            ExecutionException firstError = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+            ExecutionException secondError = assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+            assertTrue(firstError.getCause() instanceof IllegalStateException);
+            assertTrue(secondError.getCause() instanceof IllegalStateException);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals("recovered", flight.execute("1", () -> "recovered"));
+    }
+
+    @Test
+    void testDifferentKeysRunIndependently() {
+        assertEquals("a", flight.execute("a", () -> "a"));
+        assertEquals("b", flight.execute("b", () -> "b"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.rqchallenge;
+
+import com.example.rqchallenge.config.RateLimitProperties;
+import com.example.rqchallenge.employees.upstream.RequestPriority;
+import com.example.rqchallenge.employees.upstream.UpstreamRateLimiter;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpstreamRateLimiterTests {
+
+    @Test
+    void testBurstIsAvailableImmediately() {
+        UpstreamRateLimiter limiter = new UpstreamRateLimiter(properties(1, 3));
+        long deadline = System.nanoTime();
+
+        assertTrue(limiter.acquire(RequestPriority.INTERACTIVE, deadline));
+        assertTrue(limiter.acquire(RequestPriority.INTERACTIVE, deadline));
+        assertTrue(limiter.acquire(RequestPriority.INTERACTIVE, deadline));
+        assertFalse(limiter.acquire(RequestPriority.INTERACTIVE, deadline));
+    }
+
+    @Test
+    void testRetryAfterBlocksCallersAndHalvesRate() {
+        UpstreamRateLimiter limiter = new UpstreamRateLimiter(properties(10, 10));
+
+        Duration retryAfter = limiter.onRateLimited("1");
+
+        assertEquals(Duration.ofSeconds(1), retryAfter);
+        assertEquals(5, limiter.getRate(), 0.001);
+        assertFalse(limiter.acquire(RequestPriority.INTERACTIVE, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200)));
+        assertTrue(limiter.acquire(RequestPriority.INTERACTIVE, System.nanoTime() + TimeUnit.SECONDS.toNanos(3)));
+    }
+
+    @Test
+    void testMissingRetryAfterFallsBackToDefault() {
+        RateLimitProperties properties = properties(10, 10);
+        properties.setDefaultRetryAfter(Duration.ofSeconds(7));
+        UpstreamRateLimiter limiter = new UpstreamRateLimiter(properties);
+
+        assertEquals(Duration.ofSeconds(7), limiter.onRateLimited(null));
+        assertEquals(Duration.ofSeconds(7), limiter.onRateLimited("soon"));
+    }
+
+    @Test
+    void testSuccessRaisesRateUpToMax() {
+        RateLimitProperties properties = properties(1, 1);
+        properties.setMaxRate(1.5);
+        properties.setAdditiveIncrease(1);
+        UpstreamRateLimiter limiter = new UpstreamRateLimiter(properties);
+
+        limiter.onSuccess();
+
+        assertEquals(1.5, limiter.getRate(), 0.001);
+    }
+
+    @Test
+    void testBackgroundYieldsToWaitingInteractiveCallers() throws Exception {
+        UpstreamRateLimiter limiter = new UpstreamRateLimiter(properties(2, 1));
+        assertTrue(limiter.acquire(RequestPriority.INTERACTIVE, System.nanoTime()));
+
+        // Both wait for the next token, which must go to the interactive caller
+        CompletableFuture<Long> background = CompletableFuture.supplyAsync(() -> {
+            limiter.acquire(RequestPriority.BACKGROUND, System.nanoTime() + TimeUnit.SECONDS.toNanos(5));
+            return System.nanoTime();
+        });
+        Thread.sleep(50);
+        CompletableFuture<Long> interactive = CompletableFuture.supplyAsync(() -> {
+            limiter.acquire(RequestPriority.INTERACTIVE, System.nanoTime() + TimeUnit.SECONDS.toNanos(5));
+            return System.nanoTime();
+        });
+
+        assertTrue(interactive.get(5, TimeUnit.SECONDS) < background.get(5, TimeUnit.SECONDS));
+    }
+
+    private static RateLimitProperties properties(double rate, int burst) {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setInitialRate(rate);
+        properties.setBurst(burst);
+        properties.setMinRate(0.1);
+        return properties;
+    }
+}